@@ -23,6 +23,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 @EnableJpaRepositories(basePackages = {
     "com.recipe_service.demo.tracking",
     "com.recipe_service.demo.recipe",
+    "com.recipe_service.demo.nutrition",
+    "com.recipe_service.demo.ai",
     "com.recipe_service.demo.translation",
 })
 public class RecipeServiceApplication {
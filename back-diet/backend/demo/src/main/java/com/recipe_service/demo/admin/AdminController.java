@@ -29,9 +29,10 @@ public class AdminController {
         return ResponseEntity.ok(r);
     }
 
+    // ?onlyStale=true : seulement les recettes sans macros ou dont les ingrédients ont changé
     @PostMapping("/recipes/compute-nutrition-all")
-    public ResponseEntity<Void> computeNutritionForAll() {
-        nutritionService.computeNutritionForAllRecipes();
+    public ResponseEntity<Void> computeNutritionForAll(@RequestParam(defaultValue = "false") boolean onlyStale) {
+        nutritionService.computeNutritionForAllRecipes(onlyStale);
         return ResponseEntity.ok().build();
     }
 }
@@ -0,0 +1,310 @@
+package com.recipe_service.demo.ai;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.imageio.*;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.*;
+
+/**
+ * Prépare les photos avant l'agent vision : décodage, réduction à max-dimension (côté le plus long),
+ * rotation EXIF appliquée puis métadonnées supprimées, ré-encodage JPEG.
+ *
+ * Le décodage se fait déjà sous-échantillonné (ImageReadParam) : une photo 4000x3000 n'est jamais
+ * décodée en pleine résolution. Travail CPU sur un pool borné (threads + file d'attente) ;
+ * pool saturé, format non décodable (HEIC...) ou erreur -> la photo part telle quelle.
+ * Idem quand le ré-encodage ne sert à rien : photo déjà à la bonne taille, sans rotation ni métadonnées,
+ * et JPEG obtenu pas plus léger que l'original.
+ */
+@Slf4j
+@Component
+public class AgentImagePreprocessor {
+
+    /**
+     * Photo prête à partir vers l'agent. content est relu à chaque abonnement (streaming par morceaux).
+     * heapBytes : taille gardée en mémoire jusqu'à l'envoi (JPEG ré-encodé), 0 si relue depuis le disque.
+     */
+    public record PreparedImage(String filename, MediaType contentType, long originalBytes, long bytes,
+                                long heapBytes, long millis, Callable<InputStream> content) { }
+
+    private final boolean enabled;
+    private final int maxDimension;
+    private final float quality;
+    private final ThreadPoolExecutor pool;
+
+    public AgentImagePreprocessor(@Value("${ai.agent.images.preprocess:true}") boolean enabled,
+                                  @Value("${ai.agent.images.max-dimension:1600}") int maxDimension,
+                                  @Value("${ai.agent.images.jpeg-quality:0.8}") float quality,
+                                  @Value("${ai.agent.images.threads:2}") int threads,
+                                  @Value("${ai.agent.images.queue-capacity:16}") int queueCapacity) {
+        this.enabled = enabled;
+        this.maxDimension = maxDimension;
+        this.quality = quality;
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "agent-image-preprocess");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // pas de CallerRunsPolicy : le décodage ne doit pas tourner sur les threads des requêtes
+        this.pool.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        ImageIO.setUseCache(false);
+    }
+
+    public CompletableFuture<PreparedImage> prepare(MultipartFile file) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(original(file, 0));
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> process(file), pool);
+        } catch (RejectedExecutionException e) {
+            log.warn("⚠️ Prétraitement images saturé, {} envoyée telle quelle", file.getOriginalFilename());
+            return CompletableFuture.completedFuture(original(file, 0));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    PreparedImage process(MultipartFile file) {
+        long start = System.currentTimeMillis();
+        try (InputStream in = file.getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                log.info("🖼 {} : format non décodable ({}), envoyée telle quelle",
+                        file.getOriginalFilename(), file.getContentType());
+                return original(file, System.currentTimeMillis() - start);
+            }
+
+            ImageReader reader = readers.next();
+            BufferedImage decoded;
+            int orientation;
+            boolean resized;
+            boolean metadata;
+            try {
+                reader.setInput(input, true, false);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                // sous-échantillonnage entier au décodage, la réduction exacte se fait ensuite
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / maxDimension);
+                param.setSourceSubsampling(step, step, 0, 0);
+
+                resized = Math.max(width, height) > maxDimension;
+                IIOMetadata imageMetadata = reader.getImageMetadata(0);
+                orientation = exifOrientation(imageMetadata);
+                metadata = hasMetadata(imageMetadata);
+                decoded = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+
+            byte[] encoded = encodeJpeg(orient(downscale(decoded), orientation));
+            long millis = System.currentTimeMillis() - start;
+            if (encoded.length >= file.getSize() && !resized && orientation <= 1 && !metadata) {
+                log.debug("🖼 {} : ré-encodage pas plus léger ({} Ko -> {} Ko), envoyée telle quelle",
+                        file.getOriginalFilename(), file.getSize() / 1024, encoded.length / 1024);
+                return original(file, millis);
+            }
+            log.debug("🖼 {} : {} Ko -> {} Ko en {} ms",
+                    file.getOriginalFilename(), file.getSize() / 1024, encoded.length / 1024, millis);
+            return new PreparedImage(jpegName(file.getOriginalFilename()), MediaType.IMAGE_JPEG,
+                    file.getSize(), encoded.length, encoded.length, millis, () -> new ByteArrayInputStream(encoded));
+        } catch (Exception | OutOfMemoryError e) {
+            log.warn("⚠️ Prétraitement de {} impossible, envoyée telle quelle: {}", file.getOriginalFilename(), e.toString());
+            return original(file, System.currentTimeMillis() - start);
+        }
+    }
+
+    private BufferedImage downscale(BufferedImage source) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // toujours redessiné en RGB : JPEG sans alpha (fond blanc) et sans métadonnées
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    // EXIF supprimé : on applique l'orientation aux pixels pour que la photo reste à l'endroit
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation <= 1 || orientation > 8) {
+            return image;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        boolean swap = orientation >= 5;
+        AffineTransform t = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { t.translate(w, 0); t.scale(-1, 1); }
+            case 3 -> { t.translate(w, h); t.rotate(Math.PI); }
+            case 4 -> { t.translate(0, h); t.scale(1, -1); }
+            case 5 -> { t.rotate(Math.PI / 2); t.scale(1, -1); }
+            case 6 -> { t.translate(h, 0); t.rotate(Math.PI / 2); }
+            case 7 -> { t.scale(-1, 1); t.translate(-h, w); t.rotate(3 * Math.PI / 2); }
+            case 8 -> { t.translate(0, w); t.rotate(3 * Math.PI / 2); }
+            default -> { }
+        }
+        BufferedImage target = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.drawImage(image, t, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DISABLED);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    // tag 0x0112 du segment APP1 "Exif" (JPEG uniquement), 1 si absent
+    static int exifOrientation(IIOMetadata metadata) {
+        if (metadata == null || !"javax_imageio_jpeg_image_1.0".equals(metadata.getNativeMetadataFormatName())) {
+            return 1;
+        }
+        Node markers = child(metadata.getAsTree("javax_imageio_jpeg_image_1.0"), "markerSequence");
+        for (Node node = markers != null ? markers.getFirstChild() : null; node != null; node = node.getNextSibling()) {
+            NamedNodeMap attributes = node.getAttributes();
+            Node tag = attributes != null ? attributes.getNamedItem("MarkerTag") : null;
+            if ("unknown".equals(node.getNodeName()) && tag != null && "225".equals(tag.getNodeValue())
+                    && node instanceof IIOMetadataNode iio
+                    && iio.getUserObject() instanceof byte[] app1) {
+                return orientationFromApp1(app1);
+            }
+        }
+        return 1;
+    }
+
+    // segments APP1..APP15 (EXIF, XMP...) et commentaires JPEG, blocs texte PNG : à supprimer avant envoi
+    static boolean hasMetadata(IIOMetadata metadata) {
+        if (metadata == null || metadata.getNativeMetadataFormatName() == null) {
+            return false;
+        }
+        Node root = metadata.getAsTree(metadata.getNativeMetadataFormatName());
+        if ("javax_imageio_jpeg_image_1.0".equals(metadata.getNativeMetadataFormatName())) {
+            Node markers = child(root, "markerSequence");
+            for (Node node = markers != null ? markers.getFirstChild() : null; node != null; node = node.getNextSibling()) {
+                if ("com".equals(node.getNodeName())) {
+                    return true;
+                }
+                NamedNodeMap attributes = node.getAttributes();
+                Node tag = attributes != null ? attributes.getNamedItem("MarkerTag") : null;
+                if ("unknown".equals(node.getNodeName()) && tag != null) {
+                    int marker = Integer.parseInt(tag.getNodeValue());
+                    if (marker >= 0xE1 && marker <= 0xEF) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        if ("javax_imageio_png_1.0".equals(metadata.getNativeMetadataFormatName())) {
+            return child(root, "tEXt") != null || child(root, "iTXt") != null
+                    || child(root, "zTXt") != null || child(root, "UnknownChunks") != null;
+        }
+        return false;
+    }
+
+    static int orientationFromApp1(byte[] app1) {
+        // "Exif\0\0" puis en-tête TIFF
+        if (app1.length < 14 || app1[0] != 'E' || app1[1] != 'x' || app1[2] != 'i' || app1[3] != 'f') {
+            return 1;
+        }
+        int tiff = 6;
+        boolean little = app1[tiff] == 'I';
+        int ifd = tiff + readInt(app1, tiff + 4, little);
+        if (ifd + 2 > app1.length) {
+            return 1;
+        }
+        int entries = readShort(app1, ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > app1.length) break;
+            if (readShort(app1, entry, little) == 0x0112) {
+                return readShort(app1, entry + 8, little);
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] b, int offset, boolean little) {
+        return little
+                ? (b[offset] & 0xff) | (b[offset + 1] & 0xff) << 8
+                : (b[offset] & 0xff) << 8 | (b[offset + 1] & 0xff);
+    }
+
+    private static int readInt(byte[] b, int offset, boolean little) {
+        return little
+                ? readShort(b, offset, true) | readShort(b, offset + 2, true) << 16
+                : readShort(b, offset, false) << 16 | readShort(b, offset + 2, false);
+    }
+
+    private static Node child(Node parent, String name) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (name.equals(node.getNodeName())) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static PreparedImage original(MultipartFile file, long millis) {
+        MediaType type = file.getContentType() != null
+                ? MediaType.parseMediaType(file.getContentType())
+                : MediaType.APPLICATION_OCTET_STREAM;
+        String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : "image";
+        return new PreparedImage(name, type, file.getSize(), file.getSize(), 0, millis, file::getInputStream);
+    }
+
+    private static String jpegName(String filename) {
+        if (filename == null || filename.isBlank()) {
+            return "image.jpg";
+        }
+        int dot = filename.lastIndexOf('.');
+        return (dot > 0 ? filename.substring(0, dot) : filename) + ".jpg";
+    }
+}
@@ -0,0 +1,133 @@
+package com.recipe_service.demo.ai;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limite les envois d'images simultanés vers l'agent et tient le compte de la mémoire tampon.
+ *
+ * Les photos sont relues depuis le disque (parts multipart) par morceaux de chunk-size,
+ * avec au plus PREFETCH morceaux lus d'avance : le tas utilisé par envoi est borné par
+ * bufferPerUpload(), quelle que soit la taille des fichiers. Le permis est pris avant le prétraitement :
+ * les photos ré-encodées (en mémoire jusqu'à la fin de l'envoi) s'y ajoutent via Permit.reserve.
+ * Au total : max-concurrent * (bufferPerUpload() + photos ré-encodées d'une requête, bornées par multipart).
+ */
+@Slf4j
+@Component
+public class AgentUploadLimiter {
+
+    static final int PREFETCH = 2;
+
+    private final Semaphore slots;
+    private final int maxConcurrent;
+    private final Duration acquireTimeout;
+    private final int chunkSize;
+
+    private final AtomicInteger activeUploads = new AtomicInteger();
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong streamedBytes = new AtomicLong();
+
+    public AgentUploadLimiter(@Value("${ai.agent.uploads.max-concurrent:4}") int maxConcurrent,
+                              @Value("${ai.agent.uploads.acquire-timeout:10s}") Duration acquireTimeout,
+                              @Value("${ai.agent.uploads.chunk-size:64KB}") DataSize chunkSize) {
+        this.slots = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeout = acquireTimeout;
+        this.chunkSize = (int) chunkSize.toBytes();
+    }
+
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    public long bufferPerUpload() {
+        return (long) chunkSize * PREFETCH;
+    }
+
+    /**
+     * Attend une place (au plus acquire-timeout, appel bloquant), 429 si tout est occupé.
+     * Le permis doit être fermé à la fin de l'envoi, succès ou non.
+     */
+    public Permit acquire(long totalBytes) {
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.warn("⚠️ Envoi d'images refusé : {} envois déjà en cours", maxConcurrent);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Trop d'envois d'images en cours, réessaie dans un instant");
+        }
+        activeUploads.incrementAndGet();
+        reservedBytes.addAndGet(bufferPerUpload());
+        return new Permit(totalBytes);
+    }
+
+    public int activeUploads() {
+        return activeUploads.get();
+    }
+
+    // mémoire réservée par les envois en cours : tampons + photos ré-encodées (borne haute du tas utilisé)
+    public long reservedBytes() {
+        return reservedBytes.get();
+    }
+
+    public long streamedBytes() {
+        return streamedBytes.get();
+    }
+
+    public class Permit implements AutoCloseable {
+
+        private final long totalBytes;
+        private final long startedAt = System.currentTimeMillis();
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong heldBytes = new AtomicLong();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Permit(long totalBytes) {
+            this.totalBytes = totalBytes;
+        }
+
+        // photos gardées en mémoire (ré-encodées) jusqu'à la fermeture du permis
+        public void reserve(long bytes) {
+            if (bytes <= 0 || closed.get()) {
+                return;
+            }
+            heldBytes.addAndGet(bytes);
+            reservedBytes.addAndGet(bytes);
+        }
+
+        // appelé pour chaque morceau lu du disque
+        public void streamed(int bytes) {
+            sent.addAndGet(bytes);
+            streamedBytes.addAndGet(bytes);
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            reservedBytes.addAndGet(-bufferPerUpload() - heldBytes.get());
+            int active = activeUploads.decrementAndGet();
+            slots.release();
+            log.info("📤 Images -> agent : {} / {} Ko envoyés en {} ms (envois en cours: {}, tampon réservé: {} Ko)",
+                    sent.get() / 1024, totalBytes / 1024, System.currentTimeMillis() - startedAt,
+                    active, reservedBytes.get() / 1024);
+        }
+    }
+}
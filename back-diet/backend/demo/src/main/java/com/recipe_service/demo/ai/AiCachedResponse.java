@@ -0,0 +1,37 @@
+package com.recipe_service.demo.ai;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Réponse de l'agent conservée par AiResponseCache (rechargée au démarrage, dans la limite du TTL).
+ * La signature du prompt n'est pas stockée : elle est recalculée depuis le prompt.
+ */
+@Entity
+@Table(name = "ai_response_cache")
+@Getter
+@Setter
+@NoArgsConstructor
+public class AiCachedResponse {
+
+    // "<endpoint>:<sha-256 de la clé exacte>"
+    @Id
+    @Column(length = 80)
+    private String id;
+
+    @Column(nullable = false, length = 20)
+    private String endpoint;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String prompt;
+
+    @Column(name = "response_json", nullable = false, columnDefinition = "TEXT")
+    private String responseJson;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
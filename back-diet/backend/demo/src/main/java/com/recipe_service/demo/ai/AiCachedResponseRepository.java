@@ -0,0 +1,22 @@
+package com.recipe_service.demo.ai;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AiCachedResponseRepository extends JpaRepository<AiCachedResponse, String> {
+
+    // les plus récentes d'abord : si le cache est plein, ce sont elles qu'on garde
+    List<AiCachedResponse> findByCreatedAtAfterOrderByCreatedAtDesc(LocalDateTime after, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("delete from AiCachedResponse r where r.createdAt < :before")
+    int deleteExpired(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,261 @@
+package com.recipe_service.demo.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cache des réponses de l'agent (génération de recette, suggestions) sur deux niveaux :
+ * - exact : même prompt une fois normalisé (PromptSignature.exactKey)
+ * - proche : prompt dont la similarité (Jaccard des trigrammes, candidats trouvés par LSH sur MinHash)
+ *   dépasse similarity-threshold, avec les mêmes mots (à une faute de frappe près), nombres et négations
+ *
+ * Borné en taille (Caffeine), expiré après ttl, et recopié en base (ai_response_cache)
+ * pour survivre aux redémarrages : rechargé au démarrage, les plus récentes d'abord.
+ */
+@Slf4j
+@Component
+public class AiResponseCache {
+
+    public static final String GENERATE = "generate";
+    public static final String SUGGEST = "suggest";
+
+    private record Entry(String id, String endpoint, String prompt, PromptSignature signature,
+                         String responseJson, LocalDateTime createdAt) { }
+
+    private final AiCachedResponseRepository repository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int maxSize;
+    private final double similarityThreshold;
+
+    private final Cache<String, Entry> entries;
+
+    // "endpoint|bande" -> ids des entrées qui partagent cette bande
+    private final Map<String, Set<String>> buckets = new ConcurrentHashMap<>();
+
+    // écritures en base hors du chemin de la requête, dans l'ordre
+    private final ExecutorService persister = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ai-cache-persist");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AiResponseCache(AiCachedResponseRepository repository,
+                           ObjectMapper objectMapper,
+                           @Value("${ai.cache.enabled:true}") boolean enabled,
+                           @Value("${ai.cache.ttl:7d}") Duration ttl,
+                           @Value("${ai.cache.max-size:5000}") int maxSize,
+                           @Value("${ai.cache.similarity-threshold:0.8}") double similarityThreshold) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.similarityThreshold = similarityThreshold;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                // expiration depuis la création de la réponse (y compris pour celles rechargées de la base)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        Duration left = Duration.between(LocalDateTime.now(), entry.createdAt().plus(ttl));
+                        return Math.max(left.toNanos(), 0);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    // REPLACED : la nouvelle entrée a déjà été indexée sous le même id
+                    if (entry != null && cause != RemovalCause.REPLACED) {
+                        unindex(entry);
+                    }
+                })
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Réponse en cache pour ce prompt (identique ou proche), vide sinon.
+     */
+    public <T> Optional<T> get(String endpoint, String prompt, Class<T> type) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        PromptSignature signature = PromptSignature.of(prompt);
+        if (signature.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Entry hit = entries.getIfPresent(id(endpoint, signature));
+        String level = "exact";
+        if (hit == null) {
+            hit = nearest(endpoint, signature);
+            level = "proche";
+        }
+        if (hit == null) {
+            return Optional.empty();
+        }
+
+        try {
+            T response = objectMapper.readValue(hit.responseJson(), type);
+            log.debug("✓ Cache IA {} ({}) : \"{}\" -> \"{}\"", endpoint, level, prompt, hit.prompt());
+            return Optional.of(response);
+        } catch (Exception e) {
+            // format de réponse changé depuis : on oublie l'entrée
+            log.warn("⚠️ Réponse IA en cache illisible ({}): {}", hit.id(), e.getMessage());
+            entries.invalidate(hit.id());
+            return Optional.empty();
+        }
+    }
+
+    public void put(String endpoint, String prompt, Object response) {
+        if (!enabled || response == null) {
+            return;
+        }
+        PromptSignature signature = PromptSignature.of(prompt);
+        if (signature.isEmpty()) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(response);
+        } catch (Exception e) {
+            log.warn("⚠️ Réponse IA non mise en cache: {}", e.getMessage());
+            return;
+        }
+
+        Entry entry = new Entry(id(endpoint, signature), endpoint, prompt, signature, json, LocalDateTime.now());
+        store(entry);
+
+        persister.execute(() -> {
+            try {
+                AiCachedResponse row = new AiCachedResponse();
+                row.setId(entry.id());
+                row.setEndpoint(entry.endpoint());
+                row.setPrompt(entry.prompt());
+                row.setResponseJson(entry.responseJson());
+                row.setCreatedAt(entry.createdAt());
+                repository.save(row);
+            } catch (Exception e) {
+                // reste en mémoire, seulement perdu au prochain redémarrage
+                log.warn("⚠️ Réponse IA non persistée ({}): {}", entry.id(), e.getMessage());
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+            int purged = repository.deleteExpired(cutoff);
+            List<AiCachedResponse> rows = repository.findByCreatedAtAfterOrderByCreatedAtDesc(cutoff, Limit.of(maxSize));
+            for (AiCachedResponse row : rows) {
+                store(new Entry(row.getId(), row.getEndpoint(), row.getPrompt(), PromptSignature.of(row.getPrompt()),
+                        row.getResponseJson(), row.getCreatedAt()));
+            }
+            log.info("✓ Cache IA : {} réponses rechargées, {} expirées supprimées en {} ms",
+                    rows.size(), purged, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("⚠️ Cache IA non rechargé: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        persister.shutdown();
+    }
+
+    private void store(Entry entry) {
+        // indexé avant l'insertion : une entrée refusée tout de suite (expirée) est désindexée par le listener
+        index(entry);
+        entries.put(entry.id(), entry);
+    }
+
+    // meilleure entrée parmi celles qui partagent au moins une bande LSH
+    private Entry nearest(String endpoint, PromptSignature signature) {
+        Set<String> candidates = new HashSet<>();
+        for (String band : signature.bandKeys()) {
+            Set<String> ids = buckets.get(endpoint + "|" + band);
+            if (ids != null) {
+                candidates.addAll(ids);
+            }
+        }
+
+        Entry best = null;
+        double bestScore = similarityThreshold;
+        for (String candidate : candidates) {
+            Entry entry = entries.getIfPresent(candidate);
+            if (entry == null) continue;
+            double score = signature.similarity(entry.signature());
+            if (score >= bestScore) {
+                best = entry;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private void index(Entry entry) {
+        for (String band : entry.signature().bandKeys()) {
+            buckets.computeIfAbsent(entry.endpoint() + "|" + band, k -> ConcurrentHashMap.newKeySet()).add(entry.id());
+        }
+    }
+
+    private void unindex(Entry entry) {
+        for (String band : entry.signature().bandKeys()) {
+            buckets.computeIfPresent(entry.endpoint() + "|" + band, (k, ids) -> {
+                ids.remove(entry.id());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static String id(String endpoint, PromptSignature signature) {
+        return endpoint + ":" + sha256(signature.exactKey());
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -4,14 +4,18 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.recipe_service.demo.nutrition.NutritionService;
 import com.recipe_service.demo.recipe.Recipe;
+import com.recipe_service.demo.recipe.RecipeCaches;
+import com.recipe_service.demo.recipe.RecipeKeywordIndex;
 import com.recipe_service.demo.recipe.RecipeRepository;
 import lombok.extern.slf4j.Slf4j;  // ✅ AJOUTER CETTE LIGNE
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.*;
 
@@ -24,8 +28,9 @@ public class AiTestController {
     private final RecipeAgentClient recipeAgentClient;
     private final RecipeRepository recipeRepository;
     private final NutritionService nutritionService;
+    private final RecipeKeywordIndex recipeKeywordIndex;
+    private final RecipeCaches recipeCaches;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final RestTemplate restTemplate;
 
     @Value("${ai.agent.url:http://127.0.0.1:8000}")
     private String pythonAgentBaseUrl;
@@ -33,11 +38,13 @@ public class AiTestController {
     public AiTestController(RecipeAgentClient recipeAgentClient,
                             RecipeRepository recipeRepository,
                             NutritionService nutritionService,
-                            RestTemplate restTemplate) {
+                            RecipeKeywordIndex recipeKeywordIndex,
+                            RecipeCaches recipeCaches) {
         this.recipeAgentClient = recipeAgentClient;
         this.recipeRepository = recipeRepository;
         this.nutritionService = nutritionService;
-        this.restTemplate = restTemplate;
+        this.recipeKeywordIndex = recipeKeywordIndex;
+        this.recipeCaches = recipeCaches;
     }
 
     public static class AiIngredient {
@@ -83,6 +90,9 @@ public class AiTestController {
             String provider
     ) { }
 
+    // un morceau de réponse du chat streamé
+    public record ChatStreamChunk(String t) { }
+
     @GetMapping("/health")
     public ResponseEntity<String> aiHealth() {
         return ResponseEntity.ok("AI Test Controller OK");
@@ -123,45 +133,17 @@ public class AiTestController {
             log.info("   Message: {}", message);
             log.info("   Session: {}", sessionId);
 
-            List<Map<String, String>> history = List.of();
-            Object historyObj = body.get("history");
-            if (historyObj instanceof List) {
-                List<Map<String, String>> safeHistory = new ArrayList<>();
-                @SuppressWarnings("unchecked")
-                List<Object> rawHistory = (List<Object>) historyObj;
-
-                for (Object item : rawHistory) {
-                    if (item instanceof Map) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> map = (Map<String, Object>) item;
-                        if (map.containsKey("role") && map.containsKey("content")) {
-                            String role = (String) map.get("role");
-                            String content = (String) map.get("content");
-                            if (role != null && content != null) {
-                                safeHistory.add(Map.of("role", role, "content", content));
-                            }
-                        }
-                    }
-                }
-                history = safeHistory;
-            }
-
-            ChatRequestToAgent req = new ChatRequestToAgent(sessionId, history, message);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<ChatRequestToAgent> entity = new HttpEntity<>(req, headers);
+            ChatRequestToAgent req = toAgentRequest(body);
 
             // ✅ FIX: Ajouter logs détaillés
             log.info("🔄 Appel à l'agent Python: {}/api/chat", pythonAgentBaseUrl);
 
-            ResponseEntity<ChatAgentResponse> resp;
+            ChatAgentResponse resp;
             try {
-                resp = restTemplate.postForEntity(
-                        pythonAgentBaseUrl + "/api/chat", entity, ChatAgentResponse.class
-                );
-                log.info("✅ Réponse agent reçue: Status={}", resp.getStatusCode());
-                log.info("📦 Contenu: {}", resp.getBody());
+                // client pooled + timeout chat ; le thread bloqué ici est un thread virtuel
+                resp = recipeAgentClient.chat(req);
+                log.info("✅ Réponse agent reçue");
+                log.info("📦 Contenu: {}", resp);
             } catch (Exception e) {
                 log.error("❌ ERREUR APPEL AGENT", e);
                 log.error("   URL: {}/api/chat", pythonAgentBaseUrl);
@@ -173,15 +155,7 @@ public class AiTestController {
                 );
             }
 
-            if (resp.getStatusCode().is2xxSuccessful() && resp.getBody() != null) {
-                return ResponseEntity.ok(resp.getBody());
-            } else {
-                log.error("❌ Agent retourné erreur: {}", resp.getStatusCode());
-                throw new ResponseStatusException(
-                        HttpStatus.INTERNAL_SERVER_ERROR,
-                        "Erreur agent Python: " + resp.getStatusCode()
-                );
-            }
+            return ResponseEntity.ok(resp);
         } catch (ResponseStatusException e) {
             throw e;
         } catch (Exception e) {
@@ -193,26 +167,48 @@ public class AiTestController {
         }
     }
 
+    /**
+     * ✅ Variante streaming de /chat : les tokens de l'agent sont relayés en SSE dès leur arrivée.
+     * event "token" pour chaque morceau, "done" à la fin, "error" si l'agent échoue en cours de route
+     * (les en-têtes sont déjà partis, on ne peut plus répondre 500).
+     * data toujours en JSON ({"t": "..."}) : EventSource retire l'espace après "data:",
+     * un token brut " world" arriverait collé au précédent.
+     * Client déconnecté -> abonnement annulé -> connexion agent fermée.
+     */
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChatStreamChunk>> chatStream(@RequestBody Map<String, Object> body) {
+        ChatRequestToAgent req = toAgentRequest(body);
+        log.info("🔵 [CHAT STREAM] Session: {}", req.session_id());
+
+        return recipeAgentClient.chatStream(req)
+                .map(token -> ServerSentEvent.builder(new ChatStreamChunk(token)).event("token").build())
+                .concatWith(Mono.fromSupplier(() -> ServerSentEvent.builder(new ChatStreamChunk("")).event("done").build()))
+                .onErrorResume(e -> {
+                    log.error("❌ ERREUR STREAM AGENT: {}", e.getMessage());
+                    return Mono.just(ServerSentEvent.builder(new ChatStreamChunk("Erreur appel agent Python"))
+                            .event("error").build());
+                });
+    }
+
     @PostMapping("/chat/recipes")
     public ResponseEntity<ChatRecipeResponse> chatRecipes(@RequestBody ChatRecipePrompt req) {
         String prompt = Optional.ofNullable(req.prompt()).orElse("").toLowerCase();
         log.info("🔵 [RECIPE] Prompt: {}", prompt);
 
-        List<Recipe> dbRecipes = recipeRepository
-                .findTop10ByTitleContainingIgnoreCaseOrTagsContainingIgnoreCase(prompt, prompt);
+        // ✅ Index en mémoire (BM25) au lieu de deux LIKE sur le prompt complet
+        List<RecipeKeywordIndex.Hit> hits = recipeKeywordIndex.search(prompt, 5);
 
-        if (!dbRecipes.isEmpty()) {
-            List<ChatRecipeCard> cards = dbRecipes.stream()
-                    .limit(5)
+        if (!hits.isEmpty()) {
+            List<ChatRecipeCard> cards = hits.stream()
+                    .map(RecipeKeywordIndex.Hit::recipe)
                     .map(r -> new ChatRecipeCard(
-                            r.getId(),
-                            r.getTitle(),
-                            r.getImageUrl(),
-                            r.getCategory(),
-                            r.getArea(),
-                            r.getCalories(),
-                            (r.getPrepMinutes() != null ? r.getPrepMinutes() : 0)
-                                    + (r.getCookMinutes() != null ? r.getCookMinutes() : 0),
+                            r.id(),
+                            r.title(),
+                            r.imageUrl(),
+                            r.category(),
+                            r.area(),
+                            r.calories(),
+                            r.readyInMinutes(),
                             "Moyen"
                     ))
                     .toList();
@@ -266,7 +262,7 @@ public class AiTestController {
     public ResponseEntity<Recipe> generateAndSave(@RequestParam String prompt) {
         log.info("🔵 [GENERATE] Prompt: {}", prompt);
 
-        RecipeAgentClient.RecipeAgentResponse resp = recipeAgentClient.generateRecipe(prompt);
+        RecipeAgentClient.RecipeAgentResponse resp = recipeAgentClient.generateNewRecipe(prompt);
         log.info("📦 Réponse agent reçue");
 
         String json = resp.getRecipe();
@@ -330,6 +326,7 @@ public class AiTestController {
 
         r.setExternalId("AI-" + UUID.randomUUID());
         recipeRepository.save(r);
+        recipeCaches.evictFacets();
 
         try {
             nutritionService.computeNutritionForRecipe(r);
@@ -338,9 +335,41 @@ public class AiTestController {
         }
 
         Recipe updated = recipeRepository.findById(r.getId()).orElse(r);
+        recipeKeywordIndex.add(updated);
         return ResponseEntity.ok(updated);
     }
 
+    // ✅ payload du front -> requête agent (history filtré : seulement les {role, content} complets)
+    private ChatRequestToAgent toAgentRequest(Map<String, Object> body) {
+        String message = (String) body.getOrDefault("message", "");
+        String sessionId = (String) body.getOrDefault("session_id", "no-session");
+
+        List<Map<String, String>> history = List.of();
+        Object historyObj = body.get("history");
+        if (historyObj instanceof List) {
+            List<Map<String, String>> safeHistory = new ArrayList<>();
+            @SuppressWarnings("unchecked")
+            List<Object> rawHistory = (List<Object>) historyObj;
+
+            for (Object item : rawHistory) {
+                if (item instanceof Map) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> map = (Map<String, Object>) item;
+                    if (map.containsKey("role") && map.containsKey("content")) {
+                        String role = (String) map.get("role");
+                        String content = (String) map.get("content");
+                        if (role != null && content != null) {
+                            safeHistory.add(Map.of("role", role, "content", content));
+                        }
+                    }
+                }
+            }
+            history = safeHistory;
+        }
+
+        return new ChatRequestToAgent(sessionId, history, message);
+    }
+
     private String getFallbackImageUrl(String title) {
         return "https://picsum.photos/seed/" + Math.abs(title.hashCode()) + "/800/400";
     }
@@ -0,0 +1,226 @@
+package com.recipe_service.demo.ai;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Empreinte d'un prompt pour AiResponseCache.
+ *
+ * - exactKey : mots normalisés (minuscules, sans accents, sans mots vides, singulier), triés
+ *   -> "Recettes rapides avec du poulet" et "poulet recette rapide" donnent la même clé
+ * - shingles : trigrammes de caractères de chaque mot (tolère fautes de frappe / pluriels)
+ * - minHash  : signature MinHash des shingles, découpée en bandes pour l'index LSH
+ * - guards   : nombres et mots niés qui doivent être identiques : chaque négation est liée au mot qu'elle
+ *   porte avant le tri ("sans champignons" / "without mushrooms" / "gluten free" -> sans:champignon...),
+ *   "poulet sans gluten" ne réutilise jamais "poulet avec gluten", ni "500 kcal" pour "300 kcal",
+ *   ni "pâtes sans champignons avec lardons" pour "pâtes avec champignons sans lardons"
+ * - words    : les mêmes mots des deux côtés, à une faute de frappe près (mots de 6 lettres et plus) :
+ *   "citron vert" ne réutilise jamais "citron jaune", même si le reste du prompt est identique
+ */
+public final class PromptSignature {
+
+    static final int NUM_HASHES = 64;
+    static final int BANDS = 16;
+    static final int ROWS = NUM_HASHES / BANDS;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "de", "du", "des", "la", "le", "les", "un", "une", "et", "ou", "au", "aux", "avec", "pour", "en",
+            "dans", "sur", "je", "tu", "me", "moi", "veux", "voudrais", "donne", "propose", "quelque", "chose",
+            "quoi", "est", "ce", "qui", "que", "stp", "svp", "merci", "recette", "recettes",
+            "the", "with", "and", "or", "of", "for", "to", "in", "an", "some", "give", "want", "please",
+            "recipe", "recipes"
+    );
+
+    // en dessous, un mot doit être identique : "poire" / "poivre", "riz" / "ris" sont des ingrédients différents
+    private static final int TYPO_MIN_LENGTH = 6;
+
+    private static final Set<String> NEGATIONS = Set.of("sans", "pas", "aucun", "aucune", "without", "no", "not");
+
+    // négation placée après le mot : "gluten free", "dairy free"
+    private static final String POSTFIX_NEGATION = "free";
+
+    private static final String NEGATED = "sans:";
+
+    private final String exactKey;
+    private final Set<String> words;
+    private final Set<String> shingles;
+    private final Set<String> guards;
+    private final int[] minHash;
+
+    private PromptSignature(Set<String> words, Set<String> shingles, Set<String> guards, int[] minHash) {
+        this.exactKey = String.join(" ", words);
+        this.words = words;
+        this.shingles = shingles;
+        this.guards = guards;
+        this.minHash = minHash;
+    }
+
+    public static PromptSignature of(String prompt) {
+        List<String> tokens = tokenize(prompt);
+
+        Set<String> guards = new TreeSet<>();
+        Set<String> shingles = new HashSet<>();
+        for (String token : tokens) {
+            if (isGuard(token)) {
+                guards.add(token);
+            }
+            String padded = "^" + token + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                shingles.add(padded.substring(i, i + 3));
+            }
+        }
+        return new PromptSignature(new TreeSet<>(tokens), shingles, guards, minHash(shingles));
+    }
+
+    public String exactKey() {
+        return exactKey;
+    }
+
+    public boolean isEmpty() {
+        return exactKey.isEmpty();
+    }
+
+    // clés des bandes LSH : deux prompts proches partagent au moins une bande avec une forte probabilité
+    public List<String> bandKeys() {
+        List<String> keys = new ArrayList<>(BANDS);
+        for (int band = 0; band < BANDS; band++) {
+            StringBuilder key = new StringBuilder().append(band);
+            for (int row = 0; row < ROWS; row++) {
+                key.append(':').append(minHash[band * ROWS + row]);
+            }
+            keys.add(key.toString());
+        }
+        return keys;
+    }
+
+    // Jaccard exact des shingles (le MinHash ne sert qu'à trouver les candidats),
+    // 0 si nombres / négations diffèrent ou si un mot n'a pas d'équivalent de l'autre côté
+    public double similarity(PromptSignature other) {
+        if (!guards.equals(other.guards) || shingles.isEmpty() || other.shingles.isEmpty()
+                || !covers(words, other.words) || !covers(other.words, words)) {
+            return 0;
+        }
+        int common = 0;
+        for (String shingle : shingles) {
+            if (other.shingles.contains(shingle)) common++;
+        }
+        return (double) common / (shingles.size() + other.shingles.size() - common);
+    }
+
+    // chaque mot de "from" a son identique, ou une faute de frappe près, dans "to"
+    private static boolean covers(Set<String> from, Set<String> to) {
+        for (String word : from) {
+            if (to.contains(word)) continue;
+            boolean typo = word.length() >= TYPO_MIN_LENGTH
+                    && to.stream().anyMatch(candidate -> candidate.length() >= TYPO_MIN_LENGTH && oneEditApart(word, candidate));
+            if (!typo) return false;
+        }
+        return true;
+    }
+
+    // une lettre ajoutée, retirée, remplacée, ou deux lettres voisines inversées
+    static boolean oneEditApart(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > 1) {
+            return false;
+        }
+        int prefix = 0;
+        while (prefix < a.length() && prefix < b.length() && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        if (a.length() == b.length()) {
+            if (prefix == a.length()) return true;
+            if (a.substring(prefix + 1).equals(b.substring(prefix + 1))) return true;
+            return prefix + 1 < a.length()
+                    && a.charAt(prefix) == b.charAt(prefix + 1) && a.charAt(prefix + 1) == b.charAt(prefix)
+                    && a.substring(prefix + 2).equals(b.substring(prefix + 2));
+        }
+        String longer = a.length() > b.length() ? a : b;
+        String shorter = a.length() > b.length() ? b : a;
+        return longer.substring(prefix + 1).equals(shorter.substring(prefix));
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        boolean negate = false;
+        for (String token : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty() || STOP_WORDS.contains(token)) continue;
+            if (NEGATIONS.contains(token)) {
+                negate = true;
+            } else if (POSTFIX_NEGATION.equals(token)) {
+                // porte sur le mot précédent, s'il n'est pas déjà nié
+                int last = tokens.size() - 1;
+                if (last >= 0 && !isGuard(tokens.get(last))) {
+                    tokens.set(last, NEGATED + tokens.get(last));
+                } else {
+                    tokens.add(token);
+                }
+            } else if (token.chars().allMatch(Character::isDigit)) {
+                tokens.add(token);
+                negate = false;
+            } else if (token.length() >= 2) {
+                tokens.add(negate ? NEGATED + singular(token) : singular(token));
+                negate = false;
+            }
+        }
+        if (negate) {
+            tokens.add("sans"); // négation sans mot derrière : gardée telle quelle
+        }
+        return tokens;
+    }
+
+    // nombres et mots niés : doivent être identiques des deux côtés
+    private static boolean isGuard(String token) {
+        return token.startsWith(NEGATED) || token.equals("sans") || token.equals(POSTFIX_NEGATION)
+                || token.chars().allMatch(Character::isDigit);
+    }
+
+    // pluriels FR / EN courants : rapides -> rapide, choux -> chou, tomatoes -> tomatoe (identique des deux côtés)
+    private static String singular(String token) {
+        if (token.length() > 3 && (token.endsWith("s") || token.endsWith("x")) && !token.endsWith("ss")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+
+    private static int[] minHash(Set<String> shingles) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String shingle : shingles) {
+            long base = fnv1a(shingle);
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int h = (int) (mix(base + i * 0x9E3779B97F4A7C15L) >>> 33);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    // hash stable d'une JVM à l'autre (les signatures sont recalculées au rechargement du cache)
+    private static long fnv1a(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // finaliseur de MurmurHash3 (64 bits)
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
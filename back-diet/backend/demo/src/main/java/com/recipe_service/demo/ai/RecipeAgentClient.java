@@ -1,84 +1,221 @@
 package com.recipe_service.demo.ai;
 
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
 import org.springframework.web.multipart.MultipartFile;
-
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.function.Supplier;
+
+/**
+ * Client de l'agent Python (FastAPI), non bloquant : WebClient sur un pool Reactor Netty
+ * (connexions keep-alive réutilisées) et un timeout par endpoint.
+ * Les méthodes xxxAsync renvoient un Mono ; les versions synchrones le bloquent,
+ * ce qui ne coûte qu'un thread virtuel côté contrôleurs (spring.threads.virtual.enabled).
+ * Génération et suggestions passent d'abord par AiResponseCache (prompts identiques ou proches).
+ */
+@Slf4j
 @Service
 public class RecipeAgentClient {
 
-    @Value("${ai.agent.url:http://127.0.0.1:8000}")
-    private String agentBaseUrl;
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_STRING =
+            new ParameterizedTypeReference<>() { };
+
+    private final WebClient webClient;
+    private final AiResponseCache responseCache;
+    private final AgentUploadLimiter uploadLimiter;
+    private final AgentImagePreprocessor imagePreprocessor;
+    private final Duration chatTimeout;
+    private final Duration suggestTimeout;
+    private final Duration generateTimeout;
+    private final Duration imagesTimeout;
+
+    public RecipeAgentClient(WebClient.Builder builder,
+                             AiResponseCache responseCache,
+                             AgentUploadLimiter uploadLimiter,
+                             AgentImagePreprocessor imagePreprocessor,
+                             @Value("${ai.agent.url:http://127.0.0.1:8000}") String agentBaseUrl,
+                             @Value("${ai.agent.max-connections:200}") int maxConnections,
+                             @Value("${ai.agent.connect-timeout:5s}") Duration connectTimeout,
+                             @Value("${ai.agent.max-idle-time:30s}") Duration maxIdleTime,
+                             @Value("${ai.agent.timeouts.chat:60s}") Duration chatTimeout,
+                             @Value("${ai.agent.timeouts.suggest:30s}") Duration suggestTimeout,
+                             @Value("${ai.agent.timeouts.generate:60s}") Duration generateTimeout,
+                             @Value("${ai.agent.timeouts.images:120s}") Duration imagesTimeout) {
+        // pool dédié : connexions gardées ouvertes entre deux appels, fermées après maxIdleTime
+        // (avant que le proxy de l'agent ne les coupe de son côté)
+        ConnectionProvider pool = ConnectionProvider.builder("recipe-agent")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxConnections * 2)
+                .pendingAcquireTimeout(connectTimeout)
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(maxIdleTime)
+                .build();
+        HttpClient httpClient = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .keepAlive(true);
+
+        this.webClient = builder
+                .baseUrl(agentBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(4 * 1024 * 1024))
+                .build();
+        this.responseCache = responseCache;
+        this.uploadLimiter = uploadLimiter;
+        this.imagePreprocessor = imagePreprocessor;
+        this.chatTimeout = chatTimeout;
+        this.suggestTimeout = suggestTimeout;
+        this.generateTimeout = generateTimeout;
+        this.imagesTimeout = imagesTimeout;
+    }
+
+    // --------- Chat libre (/api/public/ai/chat) ---------
 
-    private final RestTemplate restTemplate;
+    public AiTestController.ChatAgentResponse chat(AiTestController.ChatRequestToAgent request) {
+        return chatAsync(request).block();
+    }
 
-    public RecipeAgentClient(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public Mono<AiTestController.ChatAgentResponse> chatAsync(AiTestController.ChatRequestToAgent request) {
+        return post("/api/chat", request, AiTestController.ChatAgentResponse.class, chatTimeout, "chat");
     }
 
+    /**
+     * Réponse du chat token par token, relayée depuis le endpoint SSE de l'agent (/api/chat/stream).
+     * La demande du client remonte jusqu'à la socket (Netty ne lit plus tant que rien n'est demandé) ;
+     * une annulation (client parti) ferme la connexion et libère l'agent.
+     * Agent sans endpoint de streaming (404) : réponse complète en un seul morceau.
+     */
+    public Flux<String> chatStream(AiTestController.ChatRequestToAgent request) {
+        return webClient.post()
+                .uri("/api/chat/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(request)
+                .retrieve()
+                .bodyToFlux(SSE_STRING)
+                // fin explicite côté agent (event: done ou data: [DONE])
+                .takeWhile(event -> !"done".equals(event.event()) && !"[DONE]".equals(event.data()))
+                .mapNotNull(ServerSentEvent::data)
+                // délai max avant le premier token puis entre deux tokens
+                .timeout(chatTimeout)
+                .onErrorResume(WebClientResponseException.class, e -> e.getStatusCode() == HttpStatus.NOT_FOUND
+                        ? chatAsync(request).flux().mapNotNull(AiTestController.ChatAgentResponse::answer)
+                        : Flux.error(new RuntimeException("Erreur agent (chat stream) : " + e.getStatusCode(), e)))
+                .doOnCancel(() -> log.info("⏹ Chat stream annulé par le client, connexion agent fermée"));
+    }
 
     public AiTestController.ChatRecipeResponse chatRecipesWithFiles(String prompt, MultipartFile[] files) {
-        String url = agentBaseUrl + "/api/chat/recipes-from-images";
-        
-        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-        body.add("prompt", prompt);
-        
-        // Add each file as multipart part
-        for (MultipartFile file : files) {
-            try {
-                ByteArrayResource resource = new ByteArrayResource(file.getBytes()) {
-                    @Override
-                    public String getFilename() {
-                        return file.getOriginalFilename(); // Required for FastAPI
-                    }
-                };
-                body.add("images", resource); // "images" matches FastAPI List[UploadFile]
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to process file: " + file.getOriginalFilename(), e);
-            }
-        }
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
-        
-        HttpEntity<MultiValueMap<String, Object>> entity = new HttpEntity<>(body, headers);
-        
-        ResponseEntity<AiTestController.ChatRecipeResponse> response =
-                restTemplate.exchange(url, HttpMethod.POST, entity, AiTestController.ChatRecipeResponse.class);
-        
-        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
-            throw new RuntimeException("Agent error (files): " + response.getStatusCode());
-        }
-        
-        return response.getBody();
+        return chatRecipesWithFilesAsync(prompt, files).block();
     }
-    // --------- Appel génération de recette complète (déjà utilisé par /generate-and-save) ---------
 
-    public RecipeAgentResponse generateRecipe(String prompt) {
-        String url = agentBaseUrl + "/api/recipes/generate";
+    /**
+     * Place prise dans AgentUploadLimiter avant tout travail, puis photos réduites / ré-encodées par
+     * AgentImagePreprocessor (pool borné) et relayées en streaming : chaque part est relue par morceaux
+     * (jamais chargée en entier si elle part telle quelle), au rythme où Netty écrit vers l'agent.
+     * Nombre d'envois simultanés et mémoire (tampons + photos ré-encodées) bornés et comptés par le limiteur.
+     */
+    public Mono<AiTestController.ChatRecipeResponse> chatRecipesWithFilesAsync(String prompt, MultipartFile[] files) {
+        long totalBytes = Arrays.stream(files).mapToLong(MultipartFile::getSize).sum();
+
+        // tryAcquire bloquant : hors event loop
+        Mono<AgentUploadLimiter.Permit> permit = Mono.fromCallable(() -> uploadLimiter.acquire(totalBytes))
+                .subscribeOn(Schedulers.boundedElastic());
+
+        return Mono.usingWhen(permit, p -> Flux.fromArray(files)
+                .flatMapSequential(file -> Mono.fromFuture(() -> imagePreprocessor.prepare(file))
+                        .doOnNext(image -> p.reserve(image.heapBytes())))
+                .collectList()
+                .doOnNext(RecipeAgentClient::logPreprocessing)
+                .flatMap(images -> uploadImages(prompt, images, p)),
+                p -> Mono.fromRunnable(p::close));
+    }
 
-        Map<String, String> body = new HashMap<>();
-        body.put("prompt", prompt);
+    private Mono<AiTestController.ChatRecipeResponse> uploadImages(String prompt, List<AgentImagePreprocessor.PreparedImage> images,
+                                                                   AgentUploadLimiter.Permit p) {
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("prompt", prompt);
+
+        for (AgentImagePreprocessor.PreparedImage image : images) {
+            Flux<DataBuffer> content = DataBufferUtils.readInputStream(
+                            image.content(), DefaultDataBufferFactory.sharedInstance, uploadLimiter.chunkSize())
+                    // lecture disque bloquante : hors event loop Netty (chaque demande est relancée sur ce worker)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .limitRate(AgentUploadLimiter.PREFETCH)
+                    .doOnNext(buffer -> p.streamed(buffer.readableByteCount()))
+                    .onErrorMap(IOException.class,
+                            e -> new RuntimeException("Failed to process file: " + image.filename(), e));
+            // "images" matches FastAPI List[UploadFile] ; filename requis par FastAPI
+            body.asyncPart("images", content, DataBuffer.class)
+                    .filename(image.filename())
+                    .contentType(image.contentType());
+        }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        return webClient.post()
+                .uri("/api/chat/recipes-from-images")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .retrieve()
+                .bodyToMono(AiTestController.ChatRecipeResponse.class)
+                .timeout(imagesTimeout)
+                .onErrorMap(WebClientResponseException.class,
+                        e -> new RuntimeException("Agent error (files): " + e.getStatusCode(), e))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Agent error (files): empty response")));
+    }
 
-        HttpEntity<Map<String, String>> entity = new HttpEntity<>(body, headers);
+    private static void logPreprocessing(List<AgentImagePreprocessor.PreparedImage> images) {
+        long before = images.stream().mapToLong(AgentImagePreprocessor.PreparedImage::originalBytes).sum();
+        long after = images.stream().mapToLong(AgentImagePreprocessor.PreparedImage::bytes).sum();
+        long millis = images.stream().mapToLong(AgentImagePreprocessor.PreparedImage::millis).sum();
+        log.info("🖼 Images prétraitées : {}, {} Ko -> {} Ko ({} Ko économisés) en {} ms",
+                images.size(), before / 1024, after / 1024, (before - after) / 1024, millis);
+    }
 
-        ResponseEntity<RecipeAgentResponse> response =
-                restTemplate.postForEntity(url, entity, RecipeAgentResponse.class);
+    // --------- Appel génération de recette complète (déjà utilisé par /generate-and-save) ---------
+
+    public RecipeAgentResponse generateRecipe(String prompt) {
+        return generateRecipeAsync(prompt).block();
+    }
 
-        return response.getBody();
+    public Mono<RecipeAgentResponse> generateRecipeAsync(String prompt) {
+        return cached(AiResponseCache.GENERATE, prompt, RecipeAgentResponse.class, () -> postGenerate(prompt));
+    }
+
+    // sans lecture du cache : /generate-and-save enregistre une recette par appel, une réponse réutilisée
+    // la dupliquerait en base. La réponse alimente quand même le cache des appels sans enregistrement
+    public RecipeAgentResponse generateNewRecipe(String prompt) {
+        return postGenerate(prompt)
+                .doOnNext(response -> responseCache.put(AiResponseCache.GENERATE, prompt, response))
+                .block();
+    }
+
+    private Mono<RecipeAgentResponse> postGenerate(String prompt) {
+        Map<String, String> body = new HashMap<>();
+        body.put("prompt", prompt);
+        return post("/api/recipes/generate", body, RecipeAgentResponse.class, generateTimeout, "generate");
     }
 
     public static class RecipeAgentResponse {
@@ -202,42 +339,44 @@ public class RecipeAgentClient {
     }
 
     public ChatSuggestionsResponse suggestRecipes(String prompt) {
-        String url = agentBaseUrl + "/api/recipes/suggest";
+        return suggestRecipesAsync(prompt).block();
+    }
 
+    public Mono<ChatSuggestionsResponse> suggestRecipesAsync(String prompt) {
         Map<String, String> body = new HashMap<>();
         body.put("message", prompt);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        HttpEntity<Map<String, String>> entity = new HttpEntity<>(body, headers);
-
-        ResponseEntity<ChatSuggestionsResponse> response =
-                restTemplate.postForEntity(url, entity, ChatSuggestionsResponse.class);
-
-        return response.getBody();
+        return cached(AiResponseCache.SUGGEST, prompt, ChatSuggestionsResponse.class,
+                () -> post("/api/recipes/suggest", body, ChatSuggestionsResponse.class, suggestTimeout, "suggest"));
     }
 
     // --------- ✅ méthode appelée par AiTestController.chatImages ---------
 
     public AiTestController.ChatRecipeResponse chatRecipes(String prompt, List<String> imagePaths) {
-    String url = agentBaseUrl + "/api/chat/recipes-from-images"; // ↔ FastAPI
-    Map<String, Object> body = new HashMap<>();
-    body.put("prompt", prompt);
-    body.put("image_paths", imagePaths); // pour plus tard si tu veux envoyer les paths
-
-    HttpHeaders headers = new HttpHeaders();
-    headers.setContentType(MediaType.APPLICATION_JSON);
-    HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-    ResponseEntity<AiTestController.ChatRecipeResponse> response =
-            restTemplate.postForEntity(url, entity, AiTestController.ChatRecipeResponse.class);
-
-    if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
-        throw new RuntimeException("Erreur agent (images) : " + response.getStatusCode());
+        Map<String, Object> body = new HashMap<>();
+        body.put("prompt", prompt);
+        body.put("image_paths", imagePaths); // pour plus tard si tu veux envoyer les paths
+        return post("/api/chat/recipes-from-images", body, AiTestController.ChatRecipeResponse.class, imagesTimeout, "images")
+                .block();
     }
 
-    return response.getBody();
-}
+    // réponse en cache si le prompt (ou un prompt proche) a déjà été posé, sinon appel de l'agent puis mise en cache
+    private <T> Mono<T> cached(String endpoint, String prompt, Class<T> responseType, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> responseCache.get(endpoint, prompt, responseType)
+                .map(Mono::just)
+                .orElseGet(() -> call.get().doOnNext(response -> responseCache.put(endpoint, prompt, response))));
+    }
 
+    // POST JSON commun : timeout propre à l'endpoint, erreurs HTTP / réponse vide -> RuntimeException (comme avant)
+    private <T> Mono<T> post(String path, Object body, Class<T> responseType, Duration timeout, String endpoint) {
+        return webClient.post()
+                .uri(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(responseType)
+                .timeout(timeout)
+                .onErrorMap(WebClientResponseException.class,
+                        e -> new RuntimeException("Erreur agent (" + endpoint + ") : " + e.getStatusCode(), e))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Erreur agent (" + endpoint + ") : réponse vide")));
+    }
 }
@@ -0,0 +1,70 @@
+package com.recipe_service.demo.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.recipe_service.demo.recipe.RecipeCaches;
+import com.recipe_service.demo.tracking.DayTrackingSnapshotCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * ✅ Caches Caffeine bornés (taille + TTL), statistiques exposées dans /actuator/metrics (cache.*)
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Value("${cache.recipes.max-size:10000}")
+    private long recipesMaxSize;
+
+    @Value("${cache.recipes.ttl:30m}")
+    private Duration recipesTtl;
+
+    @Value("${cache.recipe-facets.ttl:10m}")
+    private Duration recipeFacetsTtl;
+
+    @Value("${cache.day-tracking.max-size:20000}")
+    private long dayTrackingMaxSize;
+
+    @Value("${cache.day-tracking.ttl:30m}")
+    private Duration dayTrackingTtl;
+
+    @Value("${cache.translations.max-size:500}")
+    private long translationsMaxSize;
+
+    @Value("${cache.translations.ttl:1h}")
+    private Duration translationsTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+
+        // Recettes (détail par id)
+        manager.registerCustomCache(RecipeCaches.RECIPE_BY_ID, bounded(recipesMaxSize, recipesTtl).build());
+
+        // Listes de catégories / zones : une seule entrée chacune
+        manager.registerCustomCache(RecipeCaches.CATEGORIES, bounded(1, recipeFacetsTtl).build());
+        manager.registerCustomCache(RecipeCaches.AREAS, bounded(1, recipeFacetsTtl).build());
+
+        // Suivi journalier : un snapshot par (utilisateur, jour), mis à jour après commit
+        manager.registerCustomCache(DayTrackingSnapshotCache.CACHE, bounded(dayTrackingMaxSize, dayTrackingTtl).build());
+
+        // Traductions (TranslationService)
+        manager.registerCustomCache("translations", bounded(translationsMaxSize, translationsTtl).build());
+        manager.registerCustomCache("languages", bounded(1, translationsTtl).build());
+
+        return manager;
+    }
+
+    private static Caffeine<Object, Object> bounded(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats();
+    }
+}
@@ -2,6 +2,8 @@ package com.recipe_service.demo.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -18,7 +20,28 @@ import java.util.Arrays;
 @EnableMethodSecurity(prePostEnabled = true)  // ✅ Enable @PreAuthorize
 public class SecurityConfig {
 
+    // ✅ Actuator : health / info publics, le reste (metrics) avec un JWT Keycloak valide.
+    // Chaîne à part : la validation du Bearer ne s'applique qu'ici, pas aux endpoints publics de l'API
     @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/actuator/**")
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(session ->
+                session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            )
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/actuator/health/**", "/actuator/info").permitAll()
+                .anyRequest().authenticated()
+            )
+            .oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults()));
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             // ✅ Disable CSRF for API (stateless)
@@ -39,8 +62,6 @@ public class SecurityConfig {
                 .requestMatchers("/api/public/auth/login").permitAll()
                 .requestMatchers("/api/public/auth/exchange-code").permitAll()
                 .requestMatchers("/api/public/auth/health").permitAll()
-                .requestMatchers("/actuator/**").permitAll()
-                
                 
                 // Protected endpoints - require authentication
                 .requestMatchers("/api/protected/**").authenticated()
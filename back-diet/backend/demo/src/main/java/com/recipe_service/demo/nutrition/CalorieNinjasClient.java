@@ -0,0 +1,154 @@
+package com.recipe_service.demo.nutrition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Appels CalorieNinjas, limités à N requêtes/seconde (partagé entre tous les threads).
+ * On interroge "100 <unité> <nom>" et on divise par 100 : valeurs pour 1 unité, réutilisables
+ * quelle que soit la quantité de la recette.
+ */
+@Component
+public class CalorieNinjasClient {
+
+    static final double REFERENCE_QUANTITY = 100;
+
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+    private final String apiKey;
+    private final long permitIntervalNanos;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private long nextPermitAt = 0;
+
+    public CalorieNinjasClient(RestTemplate restTemplate,
+                               @Value("${calorieninjas.api.url:https://api.calorieninjas.com}") String baseUrl,
+                               @Value("${calorieninjas.api.key}") String apiKey,
+                               @Value("${nutrition.calorieninjas.requests-per-second:5}") double requestsPerSecond) {
+        this.restTemplate = restTemplate;
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.permitIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+    }
+
+    /**
+     * Nutriments pour 1 unité de chaque ligne (même ordre), null si l'ingrédient est inconnu.
+     * Plusieurs lignes = une seule requête ; chaque item doit porter le nom de sa ligne
+     * (CalorieNinjas peut sauter une ligne inconnue et en découper une autre en deux items :
+     * même nombre, mais décalés). Au moindre doute, on retombe sur une requête par ligne.
+     */
+    public List<NutritionTotals> lookupPerUnit(List<IngredientLine> lines) throws Exception {
+        String query = lines.stream()
+                .map(line -> (int) REFERENCE_QUANTITY + " " + queryUnit(line.unit()) + " " + line.name())
+                .map(part -> part.replaceAll("\\s+", " ").trim())
+                .collect(Collectors.joining(", "));
+        JsonNode items = fetchItems(query);
+
+        List<NutritionTotals> result = new ArrayList<>();
+        if (lines.size() == 1) {
+            // une expression peut donner plusieurs items ("salt and pepper") : on additionne
+            NutritionTotals total = null;
+            for (JsonNode item : items) {
+                NutritionTotals itemTotals = toTotals(item);
+                total = total == null ? itemTotals : total.plus(itemTotals);
+            }
+            result.add(total != null ? total.times(1 / REFERENCE_QUANTITY) : null);
+            return result;
+        }
+
+        if (!alignedByName(lines, items)) {
+            for (IngredientLine line : lines) {
+                result.addAll(lookupPerUnit(List.of(line)));
+            }
+            return result;
+        }
+
+        for (JsonNode item : items) {
+            result.add(toTotals(item).times(1 / REFERENCE_QUANTITY));
+        }
+        return result;
+    }
+
+    // item i = ligne i : même nombre et, pour chaque paire, mots du nom de l'item tous présents dans la ligne
+    // ("olive oil" pour "extra virgin olive oil")
+    static boolean alignedByName(List<IngredientLine> lines, JsonNode items) {
+        if (items.size() != lines.size()) {
+            return false;
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            Set<String> lineWords = words(lines.get(i).name());
+            Set<String> itemWords = words(items.get(i).path("name").asText(""));
+            if (itemWords.isEmpty() || !lineWords.containsAll(itemWords)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> words(String name) {
+        String normalized = LocalNutrientTable.normalizeName(name);
+        return normalized.isEmpty() ? Set.of() : new HashSet<>(Arrays.asList(normalized.split(" ")));
+    }
+
+    private JsonNode fetchItems(String query) throws Exception {
+        acquirePermit();
+
+        // URI déjà encodée : passée telle quelle (une String serait ré-encodée par RestTemplate)
+        URI url = URI.create(baseUrl + "/v1/nutrition?query=" + URLEncoder.encode(query, StandardCharsets.UTF_8));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Api-Key", apiKey);
+        HttpEntity<Void> entity = new HttpEntity<>(headers);
+
+        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new IllegalStateException("CalorieNinjas HTTP " + response.getStatusCode());
+        }
+        JsonNode items = objectMapper.readTree(response.getBody()).path("items");
+        return items.isArray() ? items : objectMapper.createArrayNode();
+    }
+
+    // limiteur à intervalle fixe : chaque appel réserve le prochain créneau libre puis attend son tour
+    private void acquirePermit() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextPermitAt);
+            nextPermitAt = slot + permitIntervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    // "100 egg" plutôt que "100 piece egg"
+    private static String queryUnit(String unit) {
+        return IngredientUnits.PIECE.equals(unit) ? "" : unit;
+    }
+
+    private static NutritionTotals toTotals(JsonNode item) {
+        return new NutritionTotals(
+                item.path("calories").asDouble(0),
+                item.path("protein_g").asDouble(0),
+                item.path("carbohydrates_total_g").asDouble(0),
+                item.path("fat_total_g").asDouble(0)
+        );
+    }
+}
@@ -0,0 +1,57 @@
+package com.recipe_service.demo.nutrition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Une ligne d'ingrédient d'une recette : "200 g chicken".
+ * key() = nom + unité normalisés, clé du cache de nutriments (indépendante de la quantité).
+ */
+public record IngredientLine(String name, double quantity, String unit) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public String key() {
+        return normalize(name) + "|" + normalize(unit);
+    }
+
+    // ingredientsJson = [{ "name": "...", "quantity": 200.0, "unit": "g" }, ...] ; unité canonique (IngredientUnits)
+    public static List<IngredientLine> parse(String ingredientsJson) throws Exception {
+        List<IngredientLine> lines = new ArrayList<>();
+        if (ingredientsJson == null || ingredientsJson.isBlank()) {
+            return lines;
+        }
+        JsonNode root = MAPPER.readTree(ingredientsJson);
+        if (!root.isArray()) {
+            return lines;
+        }
+        for (JsonNode ing : root) {
+            String name = ing.path("name").asText("");
+            JsonNode quantity = ing.path("quantity");
+            String unit = ing.path("unit").asText("");
+
+            double qty;
+            if (quantity.isTextual() && unit.isBlank()) {
+                // recettes TheMealDB : { "quantity": "1 1/2 cups" } sans unité séparée
+                IngredientUnits.Measure measure = IngredientUnits.parseMeasure(quantity.asText());
+                qty = measure.quantity();
+                unit = measure.unit();
+            } else {
+                qty = quantity.asDouble(0);
+            }
+
+            if (name.isBlank() || qty <= 0) continue;
+
+            lines.add(new IngredientLine(normalize(name), qty, IngredientUnits.canonical(unit)));
+        }
+        return lines;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,66 @@
+package com.recipe_service.demo.nutrition;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cache persistant des nutriments par ingrédient (nom + unité normalisés), valeurs pour 1 unité.
+ * found = false : CalorieNinjas ne connaît pas l'ingrédient (cache négatif, pas de nouvel appel).
+ */
+@Entity
+@Table(name = "ingredient_nutrition_cache")
+@Getter
+@Setter
+@NoArgsConstructor
+public class IngredientNutrition {
+
+    @Id
+    @Column(name = "ingredient_key", length = 300)
+    private String key;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false, length = 50)
+    private String unit;
+
+    @Column(nullable = false)
+    private boolean found;
+
+    @Column(name = "calories_per_unit", nullable = false)
+    private double caloriesPerUnit;
+
+    @Column(name = "protein_g_per_unit", nullable = false)
+    private double proteinGPerUnit;
+
+    @Column(name = "carbs_g_per_unit", nullable = false)
+    private double carbsGPerUnit;
+
+    @Column(name = "fat_g_per_unit", nullable = false)
+    private double fatGPerUnit;
+
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+
+    public IngredientNutrition(IngredientLine line, NutritionTotals perUnit) {
+        this.key = line.key();
+        this.name = line.name();
+        this.unit = line.unit();
+        this.found = perUnit != null;
+        if (perUnit != null) {
+            this.caloriesPerUnit = perUnit.calories();
+            this.proteinGPerUnit = perUnit.proteinG();
+            this.carbsGPerUnit = perUnit.carbsG();
+            this.fatGPerUnit = perUnit.fatG();
+        }
+        this.fetchedAt = LocalDateTime.now();
+    }
+
+    public NutritionTotals perUnit() {
+        return new NutritionTotals(caloriesPerUnit, proteinGPerUnit, carbsGPerUnit, fatGPerUnit);
+    }
+}
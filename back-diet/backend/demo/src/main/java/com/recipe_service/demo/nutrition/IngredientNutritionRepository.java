@@ -0,0 +1,6 @@
+package com.recipe_service.demo.nutrition;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface IngredientNutritionRepository extends JpaRepository<IngredientNutrition, String> {
+}
@@ -0,0 +1,129 @@
+package com.recipe_service.demo.nutrition;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Unités de recette : forme canonique ("tablespoons" -> "tbsp") et conversion en grammes.
+ * Masse : facteur fixe. Volume : ml x densité de l'ingrédient. Pièce : poids moyen d'une pièce.
+ */
+public final class IngredientUnits {
+
+    public static final String PIECE = "piece";
+
+    public record Measure(double quantity, String unit) { }
+
+    private static final Map<String, String> ALIASES = Map.ofEntries(
+            Map.entry("g", "g"), Map.entry("gr", "g"), Map.entry("gram", "g"), Map.entry("grams", "g"),
+            Map.entry("gramme", "g"), Map.entry("grammes", "g"),
+            Map.entry("kg", "kg"), Map.entry("kilo", "kg"), Map.entry("kilogram", "kg"), Map.entry("kilograms", "kg"),
+            Map.entry("mg", "mg"),
+            Map.entry("oz", "oz"), Map.entry("ounce", "oz"), Map.entry("ounces", "oz"),
+            Map.entry("lb", "lb"), Map.entry("lbs", "lb"), Map.entry("pound", "lb"), Map.entry("pounds", "lb"),
+            Map.entry("ml", "ml"), Map.entry("milliliter", "ml"), Map.entry("milliliters", "ml"),
+            Map.entry("millilitre", "ml"), Map.entry("millilitres", "ml"),
+            Map.entry("cl", "cl"), Map.entry("dl", "dl"),
+            Map.entry("l", "l"), Map.entry("liter", "l"), Map.entry("liters", "l"), Map.entry("litre", "l"), Map.entry("litres", "l"),
+            Map.entry("tsp", "tsp"), Map.entry("teaspoon", "tsp"), Map.entry("teaspoons", "tsp"), Map.entry("cac", "tsp"),
+            Map.entry("tbsp", "tbsp"), Map.entry("tbs", "tbsp"), Map.entry("tbls", "tbsp"), Map.entry("tablespoon", "tbsp"),
+            Map.entry("tablespoons", "tbsp"), Map.entry("cas", "tbsp"),
+            Map.entry("cup", "cup"), Map.entry("cups", "cup"), Map.entry("tasse", "cup"), Map.entry("tasses", "cup"),
+            Map.entry("pinch", "pinch"), Map.entry("pincee", "pinch"),
+            Map.entry("", PIECE), Map.entry("piece", PIECE), Map.entry("pieces", PIECE), Map.entry("pc", PIECE),
+            Map.entry("pcs", PIECE), Map.entry("unit", PIECE), Map.entry("units", PIECE), Map.entry("whole", PIECE),
+            Map.entry("clove", PIECE), Map.entry("cloves", PIECE), Map.entry("slice", PIECE), Map.entry("slices", PIECE),
+            Map.entry("fillet", PIECE), Map.entry("fillets", PIECE), Map.entry("large", PIECE), Map.entry("medium", PIECE),
+            Map.entry("small", PIECE),
+            Map.entry("can", "can"), Map.entry("cans", "can"), Map.entry("tin", "can"), Map.entry("tins", "can"),
+            Map.entry("boite", "can"), Map.entry("boites", "can")
+    );
+
+    // boîte de conserve standard (tomates, pois chiches...) : ~400 g, pas le poids d'une pièce de l'ingrédient
+    private static final Map<String, Double> GRAMS = Map.of(
+            "g", 1.0, "kg", 1000.0, "mg", 0.001, "oz", 28.35, "lb", 453.6, "pinch", 0.4, "can", 400.0
+    );
+
+    private static final Map<String, Double> MILLILITERS = Map.of(
+            "ml", 1.0, "cl", 10.0, "dl", 100.0, "l", 1000.0, "tsp", 5.0, "tbsp", 15.0, "cup", 240.0
+    );
+
+    // "1 1/2 cups", "200g", "1/2 tsp", "2.5 kg", "3 large", "½ cup", "2-3 tbsp" / "2 to 3 cups" (milieu de la fourchette)
+    private static final String NUMBER = "\\d+\\s+\\d+/\\d+|\\d+/\\d+|\\d+(?:[.,]\\d+)?";
+    private static final Pattern MEASURE = Pattern.compile(
+            "^\\s*(" + NUMBER + ")?(?:\\s*(?:-|–|to|à)\\s*(" + NUMBER + "))?\\s*([\\p{L}]+)?");
+
+    // mots qui suivent souvent la quantité sans être une unité : "1 chopped", "2 red" -> pièces
+    private static final Set<String> NOT_UNITS = Set.of(
+            "chopped", "sliced", "diced", "minced", "grated", "peeled", "crushed", "finely", "roughly",
+            "fresh", "frozen", "ripe", "beaten", "halved", "quartered", "red", "green", "yellow", "white",
+            "big", "hache", "hachee", "emince", "emincee", "frais", "fraiche"
+    );
+
+    private IngredientUnits() {
+    }
+
+    // unité canonique, ou l'unité telle quelle si inconnue (elle reste utilisable par CalorieNinjas)
+    public static String canonical(String unit) {
+        String u = unit == null ? "" : unit.trim().toLowerCase(Locale.ROOT).replace(".", "");
+        return ALIASES.getOrDefault(u, u);
+    }
+
+    // grammes pour 1 unité ; vide si la conversion demande une densité / un poids de pièce inconnus
+    public static Optional<Double> grams(String canonicalUnit, Double gramsPerMl, Double gramsPerPiece) {
+        Double mass = GRAMS.get(canonicalUnit);
+        if (mass != null) {
+            return Optional.of(mass);
+        }
+        Double volume = MILLILITERS.get(canonicalUnit);
+        if (volume != null) {
+            return Optional.ofNullable(gramsPerMl).map(density -> volume * density);
+        }
+        if (PIECE.equals(canonicalUnit)) {
+            return Optional.ofNullable(gramsPerPiece);
+        }
+        return Optional.empty();
+    }
+
+    // mesure texte de TheMealDB ("200g", "1 1/2 cups"...) ; quantité 0 si illisible ("to taste")
+    public static Measure parseMeasure(String text) {
+        if (text == null || text.isBlank()) {
+            return new Measure(0, PIECE);
+        }
+        String normalized = text.replace("½", " 1/2").replace("¼", " 1/4").replace("¾", " 3/4").trim();
+        Matcher m = MEASURE.matcher(normalized);
+        if (!m.find()) {
+            return new Measure(0, PIECE);
+        }
+        String unit = canonical(m.group(3));
+        if (NOT_UNITS.contains(unit)) {
+            unit = PIECE;
+        }
+        if (m.group(1) == null) {
+            // "pinch" tout seul = 1 pincée ; "to taste", "garnish" = pas de quantité
+            return new Measure("pinch".equals(unit) ? 1 : 0, unit);
+        }
+        double quantity = parseNumber(m.group(1));
+        if (m.group(2) != null) {
+            quantity = (quantity + parseNumber(m.group(2))) / 2;
+        }
+        return new Measure(quantity, unit);
+    }
+
+    private static double parseNumber(String value) {
+        double total = 0;
+        for (String part : value.trim().split("\\s+")) {
+            if (part.contains("/")) {
+                String[] fraction = part.split("/");
+                double denominator = Double.parseDouble(fraction[1]);
+                total += denominator == 0 ? 0 : Double.parseDouble(fraction[0]) / denominator;
+            } else {
+                total += Double.parseDouble(part.replace(',', '.'));
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,207 @@
+package com.recipe_service.demo.nutrition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table locale de nutriments (nutrition/ingredients.csv, ~130 ingrédients courants, pour 100 g).
+ * Résolveur principal de NutritionEngine : aucun appel réseau pour les ingrédients connus.
+ *
+ * Recherche du nom : exact (alias, pluriels, mots descriptifs ignorés)
+ * -> nom principal en fin de nom, précédé seulement d'adjectifs ("boneless chicken breast fillet" -> "chicken breast",
+ *    "red bell pepper" -> "bell pepper") ; un autre nom devant change le produit
+ *    ("almond milk", "rice vinegar", "butter beans") -> pas de correspondance, le cache / l'API prennent le relais
+ * -> similarité de trigrammes pour les fautes de frappe ("tomatoe", "parmesean"), si aucun mot n'est connu.
+ */
+@Slf4j
+@Component
+public class LocalNutrientTable {
+
+    private static final String RESOURCE = "nutrition/ingredients.csv";
+    private static final double MIN_SIMILARITY = 0.7;
+
+    // mots qui ne changent pas les nutriments (ignorés des deux côtés)
+    private static final Set<String> DESCRIPTORS = Set.of(
+            "fresh", "frozen", "chopped", "finely", "roughly", "minced", "sliced", "diced", "grated",
+            "peeled", "crushed", "ground", "boneless", "skinless", "whole", "organic", "raw", "large",
+            "small", "medium", "extra", "virgin", "plain", "unsalted", "salted", "lean", "free", "range",
+            "of", "to", "taste", "a", "the", "frais", "fraiche", "hache", "emince"
+    );
+
+    // forme / découpe en fin de nom : "chicken breast fillet", "celery stalk"
+    private static final Set<String> FORMS = Set.of(
+            "fillet", "filet", "stick", "stalk", "piece", "chunk", "cube", "slice", "strip", "wedge", "floret", "sprig"
+    );
+
+    // adjectifs qui peuvent précéder le nom principal sans en faire un autre produit
+    private static final Set<String> MODIFIERS = Set.of(
+            "red", "green", "yellow", "white", "black", "brown", "golden", "dark", "light", "baby", "young", "ripe",
+            "hot", "mild", "smoked", "dried", "canned", "tinned", "cooked", "toasted", "roasted", "firm", "soft",
+            "thick", "thin", "natural", "unsweetened", "italian", "french", "spanish", "english", "streaky", "rouge",
+            "vert", "jaune", "blanc"
+    );
+
+    public record Entry(String name, NutritionTotals per100g, Double gramsPerMl, Double gramsPerPiece) { }
+
+    private final Map<String, Entry> byName = new HashMap<>();
+    private final List<Map.Entry<String, Set<String>>> trigramIndex = new ArrayList<>();
+    private final Map<String, Optional<Entry>> matchCache = new ConcurrentHashMap<>();
+    private int maxWords = 1;
+
+    public LocalNutrientTable() {
+        load();
+    }
+
+    // nutriments pour 1 unité de la ligne, vide si l'ingrédient ou la conversion d'unité est inconnu
+    public Optional<NutritionTotals> perUnit(IngredientLine line) {
+        return match(line.name()).flatMap(entry ->
+                IngredientUnits.grams(line.unit(), entry.gramsPerMl(), entry.gramsPerPiece())
+                        .map(grams -> entry.per100g().times(grams / 100)));
+    }
+
+    public Optional<Entry> match(String ingredientName) {
+        String key = normalizeName(ingredientName);
+        if (key.isEmpty()) {
+            return Optional.empty();
+        }
+        return matchCache.computeIfAbsent(key, this::findMatch);
+    }
+
+    public int size() {
+        return new HashSet<>(byName.values()).size();
+    }
+
+    private Optional<Entry> findMatch(String key) {
+        Entry exact = byName.get(key);
+        if (exact != null) {
+            return Optional.of(exact);
+        }
+
+        String[] words = key.split(" ");
+        int end = words.length;
+        while (end > 1 && FORMS.contains(words[end - 1])) {
+            end--;
+        }
+
+        // nom principal : plus longue fin de nom connue, acceptée seulement derrière des adjectifs
+        for (int n = Math.min(end, maxWords); n >= 1; n--) {
+            Entry entry = byName.get(String.join(" ", Arrays.copyOfRange(words, end - n, end)));
+            if (entry != null) {
+                boolean adjectivesOnly = Arrays.stream(words, 0, end - n).allMatch(MODIFIERS::contains);
+                return adjectivesOnly ? Optional.of(entry) : Optional.empty();
+            }
+        }
+
+        // un mot connu ailleurs dans le nom ("garlic powder") : autre produit, pas une faute de frappe
+        for (String word : words) {
+            if (byName.containsKey(word)) {
+                return Optional.empty();
+            }
+        }
+
+        // fautes de frappe : meilleur score de Dice sur les trigrammes
+        Set<String> trigrams = trigrams(key);
+        String best = null;
+        double bestScore = MIN_SIMILARITY;
+        for (Map.Entry<String, Set<String>> candidate : trigramIndex) {
+            double score = dice(trigrams, candidate.getValue());
+            if (score >= bestScore) {
+                bestScore = score;
+                best = candidate.getKey();
+            }
+        }
+        return Optional.ofNullable(best).map(byName::get);
+    }
+
+    private void load() {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ClassPathResource(RESOURCE).getInputStream(), StandardCharsets.UTF_8))) {
+            String row;
+            while ((row = reader.readLine()) != null) {
+                if (row.isBlank() || row.startsWith("#")) continue;
+
+                String[] cols = row.split(",", -1);
+                Entry entry = new Entry(
+                        cols[0].trim(),
+                        new NutritionTotals(
+                                Double.parseDouble(cols[2]),
+                                Double.parseDouble(cols[3]),
+                                Double.parseDouble(cols[4]),
+                                Double.parseDouble(cols[5])),
+                        cols[6].isBlank() ? null : Double.valueOf(cols[6]),
+                        cols[7].isBlank() ? null : Double.valueOf(cols[7])
+                );
+                register(cols[0], entry);
+                for (String alias : cols[1].split("\\|")) {
+                    register(alias, entry);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Table de nutriments illisible: " + RESOURCE, e);
+        }
+        byName.keySet().forEach(name -> trigramIndex.add(Map.entry(name, trigrams(name))));
+        log.info("✓ Table nutriments locale: {} ingrédients, {} noms", size(), byName.size());
+    }
+
+    private void register(String name, Entry entry) {
+        String key = normalizeName(name);
+        if (key.isEmpty()) {
+            return;
+        }
+        Entry previous = byName.putIfAbsent(key, entry);
+        if (previous != null && previous != entry) {
+            log.warn("⚠️ Nom d'ingrédient en double dans {}: '{}' ({} / {})", RESOURCE, key, previous.name(), entry.name());
+        }
+        maxWords = Math.max(maxWords, key.split(" ").length);
+    }
+
+    // minuscules, sans accents ni ponctuation, au singulier, sans mots descriptifs
+    static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(name, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        StringJoiner joiner = new StringJoiner(" ");
+        for (String word : folded.split("[^\\p{L}]+")) {
+            if (word.isEmpty() || DESCRIPTORS.contains(word)) continue;
+            joiner.add(singular(word));
+        }
+        return joiner.toString();
+    }
+
+    private static String singular(String word) {
+        if (word.length() > 4 && word.endsWith("ies")) return word.substring(0, word.length() - 3) + "y";
+        if (word.length() > 4 && word.endsWith("oes")) return word.substring(0, word.length() - 2);
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")) return word.substring(0, word.length() - 1);
+        return word;
+    }
+
+    private static Set<String> trigrams(String value) {
+        String padded = "  " + value + " ";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static double dice(Set<String> a, Set<String> b) {
+        int common = 0;
+        for (String gram : a) {
+            if (b.contains(gram)) common++;
+        }
+        return 2.0 * common / (a.size() + b.size());
+    }
+}
@@ -0,0 +1,143 @@
+package com.recipe_service.demo.nutrition;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Résolution des nutriments par ingrédient :
+ * 1) table locale (LocalNutrientTable), en mémoire, sans réseau
+ * 2) cache persistant (ingredient_nutrition_cache), une requête pour tout le lot
+ * 3) les ingrédients manquants sont regroupés par requêtes CalorieNinjas de batch-size lignes,
+ *    envoyées sur un pool borné (max-concurrency) et limitées en débit par CalorieNinjasClient
+ * 4) les résultats de l'API (y compris "inconnu") sont enregistrés dans le cache
+ */
+@Slf4j
+@Service
+public class NutritionEngine {
+
+    private final LocalNutrientTable localTable;
+    private final CalorieNinjasClient calorieNinjasClient;
+    private final IngredientNutritionRepository cacheRepository;
+    private final TransactionTemplate cacheTransaction;
+    private final int batchSize;
+    private final ExecutorService executor;
+
+    public NutritionEngine(LocalNutrientTable localTable,
+                           CalorieNinjasClient calorieNinjasClient,
+                           IngredientNutritionRepository cacheRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${nutrition.engine.batch-size:10}") int batchSize,
+                           @Value("${nutrition.engine.max-concurrency:4}") int maxConcurrency) {
+        this.localTable = localTable;
+        this.calorieNinjasClient = calorieNinjasClient;
+        this.cacheRepository = cacheRepository;
+        this.cacheTransaction = new TransactionTemplate(transactionManager);
+        this.cacheTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrency, r -> {
+            Thread thread = new Thread(r, "nutrition-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // clé -> nutriments ; les clés absentes n'ont pas pu être résolues (erreur API)
+    public Map<String, IngredientNutrition> resolve(Collection<IngredientLine> lines) {
+        Map<String, IngredientLine> byKey = new LinkedHashMap<>();
+        for (IngredientLine line : lines) {
+            byKey.putIfAbsent(line.key(), line);
+        }
+        if (byKey.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        Map<String, IngredientNutrition> resolved = new HashMap<>();
+        List<String> notLocal = new ArrayList<>();
+        byKey.forEach((key, line) -> localTable.perUnit(line).ifPresentOrElse(
+                perUnit -> resolved.put(key, new IngredientNutrition(line, perUnit)),
+                () -> notLocal.add(key)));
+        if (notLocal.isEmpty()) {
+            return resolved;
+        }
+
+        cacheRepository.findAllById(notLocal).forEach(n -> resolved.put(n.getKey(), n));
+
+        List<IngredientLine> misses = byKey.values().stream()
+                .filter(line -> !resolved.containsKey(line.key()))
+                .toList();
+        if (misses.isEmpty()) {
+            return resolved;
+        }
+
+        List<CompletableFuture<List<IngredientNutrition>>> calls = new ArrayList<>();
+        for (int i = 0; i < misses.size(); i += batchSize) {
+            List<IngredientLine> batch = misses.subList(i, Math.min(i + batchSize, misses.size()));
+            calls.add(CompletableFuture.supplyAsync(() -> fetch(batch), executor));
+        }
+
+        List<IngredientNutrition> fetched = new ArrayList<>();
+        calls.forEach(call -> fetched.addAll(call.join()));
+        fetched.forEach(n -> resolved.put(n.getKey(), n));
+
+        try {
+            // transaction séparée : un conflit ici ne doit pas annuler le lot de recettes appelant
+            cacheTransaction.executeWithoutResult(status -> cacheRepository.saveAll(fetched));
+        } catch (DataIntegrityViolationException e) {
+            // un autre calcul a enregistré les mêmes ingrédients entre-temps
+            log.debug("Cache nutriments déjà rempli: {}", e.getMessage());
+        }
+
+        log.info("Nutrition: {} ingrédients, {} table locale, {} en cache, {} appels CalorieNinjas",
+                byKey.size(), byKey.size() - notLocal.size(), notLocal.size() - misses.size(), calls.size());
+        return resolved;
+    }
+
+    // totaux de la recette ; vide si un ingrédient n'a pas pu être résolu ou si aucun n'est connu
+    public Optional<NutritionTotals> total(List<IngredientLine> lines, Map<String, IngredientNutrition> resolved) {
+        NutritionTotals total = NutritionTotals.ZERO;
+        boolean anyFound = false;
+        for (IngredientLine line : lines) {
+            IngredientNutrition nutrition = resolved.get(line.key());
+            if (nutrition == null) {
+                return Optional.empty();
+            }
+            if (nutrition.isFound()) {
+                total = total.plus(nutrition.perUnit().times(line.quantity()));
+                anyFound = true;
+            }
+        }
+        return anyFound ? Optional.of(total) : Optional.empty();
+    }
+
+    private List<IngredientNutrition> fetch(List<IngredientLine> batch) {
+        try {
+            List<NutritionTotals> perUnit = calorieNinjasClient.lookupPerUnit(batch);
+            List<IngredientNutrition> result = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                result.add(new IngredientNutrition(batch.get(i), perUnit.get(i)));
+            }
+            return result;
+        } catch (Exception e) {
+            log.warn("⚠️ CalorieNinjas en échec pour {} ingrédients: {}", batch.size(), e.getMessage());
+            return List.of();
+        }
+    }
+}
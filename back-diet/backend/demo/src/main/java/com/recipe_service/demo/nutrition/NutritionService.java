@@ -1,118 +1,159 @@
 package com.recipe_service.demo.nutrition;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.recipe_service.demo.recipe.Recipe;
+import com.recipe_service.demo.recipe.RecipeCaches;
+import com.recipe_service.demo.recipe.RecipeKeywordIndex;
 import com.recipe_service.demo.recipe.RecipeRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
 
+@Slf4j
 @Service
 public class NutritionService {
 
-    @Value("${calorieninjas.api.key}")
-    private String apiKey;
-
-    private final RestTemplate restTemplate;
     private final RecipeRepository recipeRepository;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    public NutritionService(RestTemplate restTemplate,
-                            RecipeRepository recipeRepository) {
-        this.restTemplate = restTemplate;
+    private final NutritionEngine nutritionEngine;
+    private final RecipeKeywordIndex recipeKeywordIndex;
+    private final RecipeCaches recipeCaches;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    // recettes dont les ingrédients sont résolus ensemble (une requête cache + appels API groupés)
+    @Value("${nutrition.engine.recipes-per-batch:100}")
+    private int recipesPerBatch;
+
+    // macros recalculées au-delà de cette ancienneté même si les ingrédients n'ont pas changé
+    @Value("${nutrition.stale-after:30d}")
+    private Duration staleAfter;
+
+    public NutritionService(RecipeRepository recipeRepository,
+                            NutritionEngine nutritionEngine,
+                            RecipeKeywordIndex recipeKeywordIndex,
+                            RecipeCaches recipeCaches,
+                            EntityManager entityManager,
+                            PlatformTransactionManager transactionManager) {
         this.recipeRepository = recipeRepository;
+        this.nutritionEngine = nutritionEngine;
+        this.recipeKeywordIndex = recipeKeywordIndex;
+        this.recipeCaches = recipeCaches;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     // Calcul des macros pour UNE recette
     public void computeNutritionForRecipe(Recipe recipe) throws Exception {
-        String ingredientsJson = recipe.getIngredientsJson();
-        if (ingredientsJson == null || ingredientsJson.isBlank()) {
-            return;
-        }
-
-        // ingredientsJson = [{ "name": "...", "quantity": 200.0, "unit": "g" }, ...]
-        JsonNode root = objectMapper.readTree(ingredientsJson);
-        if (!root.isArray() || root.size() == 0) {
-            return;
-        }
-
-        // Construire la query pour CalorieNinjas, ex: "200 g chicken, 2 tbsp olive oil"
-        List<String> parts = new ArrayList<>();
-        for (JsonNode ing : root) {
-            String name = ing.path("name").asText("");
-            double qty = ing.path("quantity").asDouble(0);
-            String unit = ing.path("unit").asText("");
-
-            if (name.isBlank() || qty <= 0) continue;
-
-            String part = qty + " " + unit + " " + name;
-            parts.add(part);
-        }
-
-        if (parts.isEmpty()) {
+        List<IngredientLine> lines = IngredientLine.parse(recipe.getIngredientsJson());
+        if (lines.isEmpty()) {
             return;
         }
 
-        String query = String.join(", ", parts);
-        System.out.println("CalorieNinjas query = " + query);  // <--- AJOUT
-
-        // Appel CalorieNinjas
-        String url = "https://api.calorieninjas.com/v1/nutrition?query=" +
-                java.net.URLEncoder.encode(query, java.nio.charset.StandardCharsets.UTF_8);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("X-Api-Key", apiKey);
-        HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-        ResponseEntity<String> response =
-                restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
-
-        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+        Map<String, IngredientNutrition> resolved = nutritionEngine.resolve(lines);
+        Optional<NutritionTotals> totals = nutritionEngine.total(lines, resolved);
+        if (totals.isEmpty()) {
             return;
         }
 
-        JsonNode body = objectMapper.readTree(response.getBody());
-        JsonNode items = body.path("items");
-
-        if (!items.isArray() || items.size() == 0) {
-            return;
-        }
-
-        double totalCalories = 0;
-        double totalProtein = 0;
-        double totalCarbs = 0;
-        double totalFat = 0;
+        apply(recipe, totals.get());
+        recipe.markNutritionComputed();
+        recipeRepository.save(recipe);
+        recipeCaches.evictRecipe(recipe.getId());
+        recipeKeywordIndex.add(recipe); // calories à jour dans les cartes du chat
+    }
 
-        for (JsonNode item : items) {
-            totalCalories += item.path("calories").asDouble(0);
-            totalProtein  += item.path("protein_g").asDouble(0);
-            totalCarbs    += item.path("carbohydrates_total_g").asDouble(0);
-            totalFat      += item.path("fat_total_g").asDouble(0);
+    /**
+     * Calcul pour toutes les recettes (ou seulement celles aux macros absentes / périmées),
+     * par morceaux de recipesPerBatch, ids lus par keyset. Pour chaque morceau : ingrédients lus
+     * et résolus hors transaction (appels CalorieNinjas limités en débit), puis une transaction
+     * courte qui recharge les recettes, applique les macros et flush. Aucune connexion du pool
+     * n'est gardée pendant les appels réseau ; la mémoire ne dépend pas de la taille du catalogue.
+     */
+    public int computeNutritionForAllRecipes(boolean onlyStale) {
+        long start = System.currentTimeMillis();
+        LocalDateTime staleBefore = LocalDateTime.now().minus(staleAfter);
+        UUID after = new UUID(0L, 0L);
+        int scanned = 0;
+        int updated = 0;
+
+        while (true) {
+            List<UUID> ids = recipeRepository.findNutritionCandidateIds(
+                    after, onlyStale, staleBefore, Limit.of(recipesPerBatch));
+            if (ids.isEmpty()) {
+                break;
+            }
+            after = ids.get(ids.size() - 1);
+            scanned += ids.size();
+
+            // hors transaction : entités détachées, seuls leurs ingrédients servent
+            Map<UUID, Optional<NutritionTotals>> computed = computeBatch(recipeRepository.findAllById(ids));
+            entityManager.clear();
+
+            List<Recipe> changed = transactionTemplate.execute(status -> {
+                List<Recipe> chunkChanged = new ArrayList<>();
+                for (Recipe recipe : recipeRepository.findAllById(computed.keySet())) {
+                    Optional<NutritionTotals> totals = computed.get(recipe.getId());
+                    totals.ifPresent(t -> {
+                        apply(recipe, t);
+                        chunkChanged.add(recipe);
+                    });
+                    recipe.markNutritionComputed();
+                }
+                entityManager.flush();
+                return chunkChanged;
+            });
+            // après commit : caches et index ne voient que des macros enregistrées
+            for (Recipe recipe : changed) {
+                recipeCaches.evictRecipe(recipe.getId());
+                recipeKeywordIndex.add(recipe);
+            }
+            updated += changed.size();
+            entityManager.clear();
         }
 
-        recipe.setCalories((int) Math.round(totalCalories));
-        recipe.setProteinG((int) Math.round(totalProtein));
-        recipe.setCarbsG((int) Math.round(totalCarbs));
-        recipe.setFatG((int) Math.round(totalFat));
-
-        recipeRepository.save(recipe);
+        log.info("✓ Nutrition: {}/{} recettes mises à jour en {} ms (onlyStale={})",
+                updated, scanned, System.currentTimeMillis() - start, onlyStale);
+        return updated;
     }
 
-    // Calcul pour TOUTES les recettes
-    public void computeNutritionForAllRecipes() {
-        List<Recipe> all = recipeRepository.findAll();
-        for (Recipe r : all) {
+    // id -> macros calculées ; Optional.empty() = rien à calculer (aucun ingrédient), plus périmée
+    // tant que les ingrédients ne changent pas. Recettes absentes : illisibles ou non résolues, laissées telles quelles
+    private Map<UUID, Optional<NutritionTotals>> computeBatch(List<Recipe> recipes) {
+        Map<UUID, Optional<NutritionTotals>> computed = new LinkedHashMap<>();
+        Map<UUID, List<IngredientLine>> linesByRecipe = new LinkedHashMap<>();
+        for (Recipe r : recipes) {
             try {
-                computeNutritionForRecipe(r);
-                System.out.println("CalorieNinjas API key = " + apiKey);
+                List<IngredientLine> lines = IngredientLine.parse(r.getIngredientsJson());
+                if (lines.isEmpty()) {
+                    computed.put(r.getId(), Optional.empty());
+                } else {
+                    linesByRecipe.put(r.getId(), lines);
+                }
             } catch (Exception e) {
-                System.err.println("Erreur nutrition recette " + r.getId() + " : " + e.getMessage());
+                log.warn("⚠️ Ingrédients illisibles pour la recette {}: {}", r.getId(), e.getMessage());
             }
         }
+
+        // tous les ingrédients du lot résolus d'un coup
+        Map<String, IngredientNutrition> resolved = nutritionEngine.resolve(
+                linesByRecipe.values().stream().flatMap(List::stream).toList());
+
+        linesByRecipe.forEach((id, lines) -> nutritionEngine.total(lines, resolved)
+                .ifPresent(totals -> computed.put(id, Optional.of(totals))));
+        return computed;
     }
-}
 
+    private static void apply(Recipe recipe, NutritionTotals totals) {
+        recipe.setCalories((int) Math.round(totals.calories()));
+        recipe.setProteinG((int) Math.round(totals.proteinG()));
+        recipe.setCarbsG((int) Math.round(totals.carbsG()));
+        recipe.setFatG((int) Math.round(totals.fatG()));
+    }
+}
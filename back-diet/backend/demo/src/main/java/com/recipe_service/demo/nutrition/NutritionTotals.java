@@ -0,0 +1,20 @@
+package com.recipe_service.demo.nutrition;
+
+// calories + macros (g), par unité d'ingrédient ou totaux d'une recette
+public record NutritionTotals(double calories, double proteinG, double carbsG, double fatG) {
+
+    public static final NutritionTotals ZERO = new NutritionTotals(0, 0, 0, 0);
+
+    public NutritionTotals plus(NutritionTotals other) {
+        return new NutritionTotals(
+                calories + other.calories,
+                proteinG + other.proteinG,
+                carbsG + other.carbsG,
+                fatG + other.fatG
+        );
+    }
+
+    public NutritionTotals times(double factor) {
+        return new NutritionTotals(calories * factor, proteinG * factor, carbsG * factor, fatG * factor);
+    }
+}
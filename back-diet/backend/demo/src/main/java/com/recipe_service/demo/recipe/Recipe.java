@@ -1,6 +1,12 @@
 package com.recipe_service.demo.recipe;
 
 import jakarta.persistence.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.UUID;
 
 @Entity
@@ -66,6 +72,22 @@ public class Recipe {
     @Column(name = "ingredients_json")
     private String ingredientsJson;
 
+    // texte indexé en plein texte (tags, catégorie, zone, noms d'ingrédients)
+    // -> voir V2__Recipe_full_text_search.sql et RecipeSearchFunctionContributor
+    @Column(name = "search_text", columnDefinition = "TEXT")
+    private String searchText;
+
+    // empreinte de ingredients_json (le LOB n'est pas comparable en SQL)
+    @Column(name = "ingredients_hash", length = 64)
+    private String ingredientsHash;
+
+    // empreinte des ingrédients au dernier calcul des macros : différente => macros périmées
+    @Column(name = "nutrition_hash", length = 64)
+    private String nutritionHash;
+
+    @Column(name = "nutrition_computed_at")
+    private LocalDateTime nutritionComputedAt;
+
     public Recipe() {
     }
 
@@ -188,4 +210,38 @@ public class Recipe {
 
     public String getIngredientsJson() { return ingredientsJson; }
     public void setIngredientsJson(String ingredientsJson) { this.ingredientsJson = ingredientsJson; }
+
+    public String getSearchText() { return searchText; }
+
+    public String getIngredientsHash() { return ingredientsHash; }
+    public String getNutritionHash() { return nutritionHash; }
+    public LocalDateTime getNutritionComputedAt() { return nutritionComputedAt; }
+
+    // macros calculées pour les ingrédients actuels
+    public void markNutritionComputed() {
+        this.ingredientsHash = hashOf(ingredientsJson);
+        this.nutritionHash = this.ingredientsHash;
+        this.nutritionComputedAt = LocalDateTime.now();
+    }
+
+    @PrePersist
+    @PreUpdate
+    void refreshSearchText() {
+        this.searchText = RecipeSearchDocument.buildSearchText(this);
+        this.ingredientsHash = hashOf(ingredientsJson);
+    }
+
+    // jamais null : sans ingrédients, l'empreinte de "" sert de sentinelle, sinon nutrition_hash resterait NULL
+    // et la recette serait resélectionnée comme périmée à chaque recalcul (findNutritionCandidateIds)
+    private static String hashOf(String value) {
+        if (value == null) {
+            value = "";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package com.recipe_service.demo.recipe;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Noms des caches recettes + invalidation programmatique
+ * (pour les chemins qui sauvegardent une recette hors de RecipeService).
+ */
+@Component
+public class RecipeCaches {
+
+    public static final String RECIPE_BY_ID = "recipes";
+    public static final String CATEGORIES = "recipeCategories";
+    public static final String AREAS = "recipeAreas";
+
+    private final CacheManager cacheManager;
+
+    public RecipeCaches(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public void evictRecipe(UUID id) {
+        Cache cache = cacheManager.getCache(RECIPE_BY_ID);
+        if (cache != null && id != null) {
+            cache.evict(id);
+        }
+    }
+
+    // nouvelle recette : une catégorie / zone a pu apparaître
+    public void evictFacets() {
+        clear(CATEGORIES);
+        clear(AREAS);
+    }
+
+    private void clear(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
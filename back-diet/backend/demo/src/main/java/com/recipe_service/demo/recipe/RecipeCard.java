@@ -0,0 +1,22 @@
+package com.recipe_service.demo.recipe;
+
+import java.util.UUID;
+
+// Projection "carte" pour les listes : toutes les colonnes SAUF les @Lob (instructions, ingredients_json)
+public record RecipeCard(
+        UUID id,
+        String title,
+        String shortDescription,
+        String imageUrl,
+        String source,
+        int servings,
+        Integer calories,
+        Integer prepMinutes,
+        Integer cookMinutes,
+        Integer proteinG,
+        Integer carbsG,
+        Integer fatG,
+        String category,
+        String area,
+        String tags
+) { }
@@ -0,0 +1,16 @@
+package com.recipe_service.demo.recipe;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+// Fragment de RecipeRepository : requêtes de liste qui ne chargent pas les colonnes @Lob
+public interface RecipeCardRepository {
+
+    // une page de cartes, sans requête COUNT
+    List<RecipeCard> findCards(Specification<Recipe> spec, Pageable pageable);
+
+    List<RecipeCard> findCards(Specification<Recipe> spec, Sort sort, int limit);
+}
@@ -0,0 +1,74 @@
+package com.recipe_service.demo.recipe;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+public class RecipeCardRepositoryImpl implements RecipeCardRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<RecipeCard> findCards(Specification<Recipe> spec, Pageable pageable) {
+        TypedQuery<RecipeCard> query = cardQuery(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public List<RecipeCard> findCards(Specification<Recipe> spec, Sort sort, int limit) {
+        return cardQuery(spec, sort)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private TypedQuery<RecipeCard> cardQuery(Specification<Recipe> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RecipeCard> query = cb.createQuery(RecipeCard.class);
+        Root<Recipe> root = query.from(Recipe.class);
+
+        query.select(cb.construct(RecipeCard.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("shortDescription"),
+                root.get("imageUrl"),
+                root.get("source"),
+                root.get("servings"),
+                root.get("calories"),
+                root.get("prepMinutes"),
+                root.get("cookMinutes"),
+                root.get("proteinG"),
+                root.get("carbsG"),
+                root.get("fatG"),
+                root.get("category"),
+                root.get("area"),
+                root.get("tags")
+        ));
+
+        // la Specification peut aussi poser un ORDER BY (ex: pertinence plein texte)
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(query);
+    }
+}
@@ -107,7 +107,6 @@
 package com.recipe_service.demo.recipe;
 
 import com.recipe_service.demo.ai.AiTestController;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -137,14 +136,14 @@ import java.util.UUID;
 public class RecipeController {
 
     private final RecipeService service;
-    private final RecipeImportService importService;
+    private final RecipeImportJobService importJobService;
     private final AiTestController aiTestController;
 
     public RecipeController(RecipeService service,
-                            RecipeImportService importService,
+                            RecipeImportJobService importJobService,
                             AiTestController aiTestController) {
         this.service = service;
-        this.importService = importService;
+        this.importJobService = importJobService;
         this.aiTestController = aiTestController;
     }
 
@@ -156,8 +155,7 @@ public class RecipeController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "8") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<RecipeResponse> pageResult = service.findAll(pageable);
-        return ResponseEntity.ok(pageResult.getContent());
+        return ResponseEntity.ok(service.findAll(pageable));
     }
 
     @GetMapping("/categories")
@@ -165,9 +163,16 @@ public class RecipeController {
         return ResponseEntity.ok(service.getAllCategories());
     }
 
+    @GetMapping("/areas")
+    public ResponseEntity<List<String>> getAreas() {
+        return ResponseEntity.ok(service.getAllAreas());
+    }
+
+    // ✅ ETag fort : If-None-Match identique -> 304 sans corps (géré par Spring MVC à partir de l'ETag)
     @GetMapping("/{id}")
     public ResponseEntity<RecipeResponse> getById(@PathVariable UUID id) {
-        return ResponseEntity.ok(service.findById(id));
+        RecipeResponse recipe = service.findById(id);
+        return ResponseEntity.ok().eTag(recipe.getEtag()).body(recipe);
     }
 
     // ✅ AVEC PAGINATION
@@ -177,8 +182,25 @@ public class RecipeController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "8") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<RecipeResponse> pageResult = service.search(searchQuery, pageable);
-        return ResponseEntity.ok(pageResult.getContent());
+        return ResponseEntity.ok(service.search(searchQuery, pageable));
+    }
+
+    // ✅ SCROLL INFINI (curseur) : ?after=<nextCursor de la page précédente>&sort=title|calories
+    @GetMapping("/scroll")
+    public ResponseEntity<RecipeCursorPage> scroll(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "title") String sort,
+            @RequestParam(defaultValue = "8") int size) {
+        return ResponseEntity.ok(service.scroll(null, after, sort, size));
+    }
+
+    @GetMapping("/search/scroll")
+    public ResponseEntity<RecipeCursorPage> searchScroll(
+            @RequestParam(name = "search", required = false) String searchQuery,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "title") String sort,
+            @RequestParam(defaultValue = "8") int size) {
+        return ResponseEntity.ok(service.scroll(searchQuery, after, sort, size));
     }
 
     // ===== POST Endpoints =====
@@ -189,10 +211,16 @@ public class RecipeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    // ✅ Import asynchrone : renvoie le job tout de suite, suivi via /import/jobs/{id}
     @PostMapping("/import/themealdb")
-    public ResponseEntity<String> importFromMealDb() {
-        int created = importService.importManyFromMealDb();
-        return ResponseEntity.ok("Imported " + created + " recipes from TheMealDB");
+    public ResponseEntity<RecipeImportJobStatus> importFromMealDb(
+            @RequestParam(defaultValue = "false") boolean incremental) {
+        return ResponseEntity.accepted().body(importJobService.start(incremental));
+    }
+
+    @GetMapping("/import/jobs/{id}")
+    public ResponseEntity<RecipeImportJobStatus> getImportJob(@PathVariable UUID id) {
+        return ResponseEntity.ok(importJobService.getStatus(id));
     }
 
     // ===== AI Generation =====
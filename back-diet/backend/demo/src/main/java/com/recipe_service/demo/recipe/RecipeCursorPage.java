@@ -0,0 +1,10 @@
+package com.recipe_service.demo.recipe;
+
+import java.util.List;
+
+// page "Slice" pour le scroll infini : pas de total, juste le curseur de la page suivante
+public record RecipeCursorPage(
+        List<RecipeResponse> items,
+        String nextCursor,
+        boolean hasNext
+) { }
@@ -0,0 +1,49 @@
+package com.recipe_service.demo.recipe;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Dernier état connu d'une page source (une lettre TheMealDB) :
+ * empreinte du contenu (mode incrémental) et dernier job qui l'a traitée (reprise).
+ */
+@Entity
+@Table(name = "recipe_import_checkpoints",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"source", "unit_key"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class RecipeImportCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, length = 30)
+    private String source;
+
+    @Column(name = "unit_key", nullable = false, length = 50)
+    private String unitKey;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "row_count", nullable = false)
+    private int rowCount;
+
+    @Column(name = "last_job_id", nullable = false)
+    private UUID lastJobId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public RecipeImportCheckpoint(String source, String unitKey) {
+        this.source = source;
+        this.unitKey = unitKey;
+    }
+}
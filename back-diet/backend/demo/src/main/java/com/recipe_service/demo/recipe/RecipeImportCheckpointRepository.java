@@ -0,0 +1,11 @@
+package com.recipe_service.demo.recipe;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface RecipeImportCheckpointRepository extends JpaRepository<RecipeImportCheckpoint, UUID> {
+
+    List<RecipeImportCheckpoint> findBySource(String source);
+}
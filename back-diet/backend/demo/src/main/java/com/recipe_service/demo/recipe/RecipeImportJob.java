@@ -0,0 +1,108 @@
+package com.recipe_service.demo.recipe;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Job d'import persistant : survit à un redémarrage (repris au démarrage s'il était RUNNING).
+ * Les pages déjà traitées par le job sont dans recipe_import_checkpoints (last_job_id = id).
+ */
+@Entity
+@Table(name = "recipe_import_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+public class RecipeImportJob {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, length = 30)
+    private String source;
+
+    @Column(nullable = false)
+    private boolean incremental;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.RUNNING;
+
+    // pages (lettres) à traiter / traitées / sautées (hash inchangé) / en échec
+    @Column(name = "total_units", nullable = false)
+    private int totalUnits;
+
+    @Column(name = "completed_units", nullable = false)
+    private int completedUnits;
+
+    @Column(name = "skipped_units", nullable = false)
+    private int skippedUnits;
+
+    @Column(name = "failed_units", nullable = false)
+    private int failedUnits;
+
+    @Column(name = "rows_fetched", nullable = false)
+    private int rowsFetched;
+
+    @Column(name = "rows_created", nullable = false)
+    private int rowsCreated;
+
+    // durées cumulées par étape
+    @Column(name = "lookup_ms", nullable = false)
+    private long lookupMs;
+
+    @Column(name = "persist_ms", nullable = false)
+    private long persistMs;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // début de l'exécution courante (remis à zéro à la reprise, pour un débit/ETA honnêtes)
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // unités / lignes déjà faites au moment du (re)démarrage
+    @Column(name = "units_at_start", nullable = false)
+    private int unitsAtStart;
+
+    @Column(name = "rows_at_start", nullable = false)
+    private int rowsAtStart;
+
+    public RecipeImportJob(String source, boolean incremental, int totalUnits) {
+        this.source = source;
+        this.incremental = incremental;
+        this.totalUnits = totalUnits;
+    }
+
+    public int doneUnits() {
+        return completedUnits + skippedUnits + failedUnits;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
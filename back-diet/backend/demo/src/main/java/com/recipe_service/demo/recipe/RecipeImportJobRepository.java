@@ -0,0 +1,14 @@
+package com.recipe_service.demo.recipe;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RecipeImportJobRepository extends JpaRepository<RecipeImportJob, UUID> {
+
+    List<RecipeImportJob> findByStatus(RecipeImportJob.Status status);
+
+    Optional<RecipeImportJob> findFirstBySourceAndStatus(String source, RecipeImportJob.Status status);
+}
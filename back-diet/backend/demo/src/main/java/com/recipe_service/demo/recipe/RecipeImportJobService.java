@@ -0,0 +1,184 @@
+package com.recipe_service.demo.recipe;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Import TheMealDB en tâche de fond, page par page (une lettre = une page).
+ *
+ * Chaque page terminée est checkpointée (hash + job) dans la même transaction que les compteurs du job :
+ * après un redémarrage, les jobs RUNNING reprennent aux pages non checkpointées.
+ * Une page rejouée ne crée pas de doublons (filtrage par externalId dans RecipeImportService).
+ */
+@Slf4j
+@Service
+public class RecipeImportJobService {
+
+    private final RecipeImportService importService;
+    private final RecipeImportJobRepository jobRepository;
+    private final RecipeImportCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // un seul import à la fois : le parallélisme est déjà dans le téléchargement des pages
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "recipe-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RecipeImportJobService(RecipeImportService importService,
+                                  RecipeImportJobRepository jobRepository,
+                                  RecipeImportCheckpointRepository checkpointRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.importService = importService;
+        this.jobRepository = jobRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // incremental = true : les pages dont le contenu n'a pas changé depuis le dernier import sont sautées
+    public synchronized RecipeImportJobStatus start(boolean incremental) {
+        Optional<RecipeImportJob> running = jobRepository.findFirstBySourceAndStatus(
+                RecipeImportService.SOURCE, RecipeImportJob.Status.RUNNING);
+        if (running.isPresent()) {
+            return RecipeImportJobStatus.from(running.get());
+        }
+
+        RecipeImportJob job = jobRepository.save(new RecipeImportJob(
+                RecipeImportService.SOURCE, incremental, RecipeImportService.LETTERS.size()));
+        submit(job.getId());
+        return RecipeImportJobStatus.from(job);
+    }
+
+    public RecipeImportJobStatus getStatus(UUID jobId) {
+        return jobRepository.findById(jobId)
+                .map(RecipeImportJobStatus::from)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job d'import introuvable: " + jobId));
+    }
+
+    // reprise des jobs interrompus (redémarrage du pod, crash...)
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        try {
+            for (RecipeImportJob job : jobRepository.findByStatus(RecipeImportJob.Status.RUNNING)) {
+                log.info("↻ Reprise du job d'import {}", job.getId());
+                submit(job.getId());
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Reprise des jobs d'import impossible: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // le job courant reste RUNNING en base et sera repris au prochain démarrage
+        executor.shutdownNow();
+    }
+
+    private void submit(UUID jobId) {
+        executor.submit(() -> {
+            try {
+                run(jobId);
+            } catch (Exception e) {
+                log.error("❌ Job d'import {} en échec", jobId, e);
+                jobRepository.findById(jobId).ifPresent(job -> finish(job, RecipeImportJob.Status.FAILED, e.getMessage()));
+            }
+        });
+    }
+
+    private void run(UUID jobId) {
+        RecipeImportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != RecipeImportJob.Status.RUNNING) {
+            return;
+        }
+
+        Map<String, RecipeImportCheckpoint> checkpoints = checkpointRepository.findBySource(job.getSource()).stream()
+                .collect(Collectors.toMap(RecipeImportCheckpoint::getUnitKey, Function.identity()));
+
+        // pages déjà checkpointées par ce job = faites avant l'interruption ; les pages en échec sont retentées
+        List<Character> remaining = RecipeImportService.LETTERS.stream()
+                .filter(letter -> {
+                    RecipeImportCheckpoint checkpoint = checkpoints.get(String.valueOf(letter));
+                    return checkpoint == null || !jobId.equals(checkpoint.getLastJobId());
+                })
+                .toList();
+
+        job.setFailedUnits(0);
+        job.setStartedAt(LocalDateTime.now());
+        job.setUnitsAtStart(job.doneUnits());
+        job.setRowsAtStart(job.getRowsFetched());
+        job = jobRepository.save(job);
+
+        for (RecipeImportService.LetterBatch batch : importService.fetchLetters(remaining).toIterable()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            String unitKey = String.valueOf(batch.letter());
+
+            if (batch.failed()) {
+                job.setFailedUnits(job.getFailedUnits() + 1);
+                job.setLastError("Lettre '" + unitKey + "': " + batch.error().getMessage());
+                job = jobRepository.save(job);
+                continue;
+            }
+
+            String hash = importService.contentHash(batch.meals());
+            RecipeImportCheckpoint checkpoint = checkpoints.computeIfAbsent(unitKey,
+                    key -> new RecipeImportCheckpoint(RecipeImportService.SOURCE, key));
+
+            if (job.isIncremental() && hash.equals(checkpoint.getContentHash())) {
+                job.setSkippedUnits(job.getSkippedUnits() + 1);
+            } else {
+                RecipeImportService.LetterResult result = importService.importMeals(batch.meals());
+                job.setCompletedUnits(job.getCompletedUnits() + 1);
+                job.setRowsFetched(job.getRowsFetched() + result.fetched());
+                job.setRowsCreated(job.getRowsCreated() + result.created());
+                job.setLookupMs(job.getLookupMs() + result.lookupMs());
+                job.setPersistMs(job.getPersistMs() + result.persistMs());
+            }
+
+            checkpoint.setContentHash(hash);
+            checkpoint.setRowCount(batch.meals().size());
+            checkpoint.setLastJobId(jobId);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            job = checkpoint(job, checkpoint);
+            checkpoints.put(unitKey, checkpoint);
+        }
+
+        if (job.getFailedUnits() > 0) {
+            finish(job, RecipeImportJob.Status.FAILED, job.getLastError());
+        } else {
+            finish(job, RecipeImportJob.Status.COMPLETED, null);
+        }
+    }
+
+    // checkpoint de la page + compteurs du job dans une seule transaction
+    private RecipeImportJob checkpoint(RecipeImportJob job, RecipeImportCheckpoint checkpoint) {
+        return transactionTemplate.execute(status -> {
+            checkpointRepository.save(checkpoint);
+            return jobRepository.save(job);
+        });
+    }
+
+    private void finish(RecipeImportJob job, RecipeImportJob.Status status, String error) {
+        job.setStatus(status);
+        job.setLastError(error);
+        job.setFinishedAt(LocalDateTime.now());
+        RecipeImportJob saved = jobRepository.save(job);
+        log.info("✓ Job d'import {} terminé: {}", saved.getId(), RecipeImportJobStatus.from(saved));
+    }
+}
@@ -0,0 +1,68 @@
+package com.recipe_service.demo.recipe;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Vue d'un job d'import pour GET /import/jobs/{id} : avancement, débit et ETA
+public record RecipeImportJobStatus(
+        UUID id,
+        String source,
+        boolean incremental,
+        RecipeImportJob.Status status,
+        int totalUnits,
+        int completedUnits,
+        int skippedUnits,
+        int failedUnits,
+        int rowsFetched,
+        int rowsCreated,
+        long lookupMs,
+        long persistMs,
+        double rowsPerSecond,
+        Long etaSeconds,
+        String lastError,
+        LocalDateTime createdAt,
+        LocalDateTime finishedAt
+) {
+
+    public static RecipeImportJobStatus from(RecipeImportJob job) {
+        LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+        long elapsedMs = job.getStartedAt() != null
+                ? Math.max(Duration.between(job.getStartedAt(), end).toMillis(), 1)
+                : 0;
+
+        double rowsPerSecond = elapsedMs > 0
+                ? (job.getRowsFetched() - job.getRowsAtStart()) * 1000.0 / elapsedMs
+                : 0;
+
+        // ETA = pages restantes x durée moyenne d'une page depuis le (re)démarrage
+        Long etaSeconds = null;
+        int doneSinceStart = job.doneUnits() - job.getUnitsAtStart();
+        if (job.getStatus() == RecipeImportJob.Status.RUNNING && doneSinceStart > 0) {
+            int remaining = Math.max(job.getTotalUnits() - job.doneUnits(), 0);
+            etaSeconds = Math.round(remaining * (elapsedMs / 1000.0) / doneSinceStart);
+        } else if (job.getStatus() != RecipeImportJob.Status.RUNNING) {
+            etaSeconds = 0L;
+        }
+
+        return new RecipeImportJobStatus(
+                job.getId(),
+                job.getSource(),
+                job.isIncremental(),
+                job.getStatus(),
+                job.getTotalUnits(),
+                job.getCompletedUnits(),
+                job.getSkippedUnits(),
+                job.getFailedUnits(),
+                job.getRowsFetched(),
+                job.getRowsCreated(),
+                job.getLookupMs(),
+                job.getPersistMs(),
+                Math.round(rowsPerSecond * 10) / 10.0,
+                etaSeconds,
+                job.getLastError(),
+                job.getCreatedAt(),
+                job.getFinishedAt()
+        );
+    }
+}
@@ -1,42 +1,128 @@
 package com.recipe_service.demo.recipe;
 
-import org.springframework.stereotype.Service;
-
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.security.MessageDigest;
+import java.util.*;
 
+@Slf4j
 @Service
 public class RecipeImportService {
 
+    public static final String SOURCE = "THEMEALDB";
+
+    // une "page" TheMealDB = une première lettre
+    public static final List<Character> LETTERS = List.of(
+            'a','b','c','d','e','f','g','h','i','j',
+            'k','l','m','n','o','p','q','r','s','t',
+            'u','v','w','x','y','z'
+    );
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+    private static final ObjectMapper HASH_MAPPER = new ObjectMapper();
+
     private final TheMealDbClient mealDbClient;
     private final RecipeService recipeService;
+    private final RecipeRepository recipeRepository;
+    private final RecipeKeywordIndex keywordIndex;
+
+    // nombre de lettres téléchargées en parallèle
+    @Value("${import.themealdb.concurrency:6}")
+    private int fetchConcurrency;
+
+    // recettes par transaction (découpées ensuite en batchs JDBC de hibernate.jdbc.batch_size)
+    @Value("${import.themealdb.persist-chunk-size:200}")
+    private int persistChunkSize;
 
     public RecipeImportService(TheMealDbClient mealDbClient,
-                               RecipeService recipeService) {
+                               RecipeService recipeService,
+                               RecipeRepository recipeRepository,
+                               RecipeKeywordIndex keywordIndex) {
         this.mealDbClient = mealDbClient;
         this.recipeService = recipeService;
+        this.recipeRepository = recipeRepository;
+        this.keywordIndex = keywordIndex;
     }
 
-    public int importManyFromMealDb() {
-        List<Character> letters = List.of(
-                'a','b','c','d','e','f','g','h','i','j',
-                'k','l','m','n','o','p','q','r','s','t',
-                'u','v','w','x','y','z'
-        );
+    // une page TheMealDB téléchargée (meals vide + error si la lettre est en échec)
+    public record LetterBatch(char letter, List<TheMealDbClient.MealDto> meals, Throwable error) {
+        public boolean failed() {
+            return error != null;
+        }
+    }
 
-        int count = 0;
-        for (char letter : letters) {
-            var meals = mealDbClient.searchByFirstLetter(letter);
-            for (TheMealDbClient.MealDto meal : meals) {
-                RecipeCreateRequest req = mapMealToRecipe(meal);
-                recipeService.create(req, meal.idMeal); // <-- ici
-                count++;
+    // bilan d'une page importée
+    public record LetterResult(int fetched, int duplicates, int alreadyPresent, int created,
+                               long lookupMs, long persistMs) { }
+
+    // téléchargement concurrent (parallélisme borné), les pages arrivent dans l'ordre où elles se terminent
+    public Flux<LetterBatch> fetchLetters(Collection<Character> letters) {
+        return Flux.fromIterable(letters)
+                .flatMap(letter -> mealDbClient.searchByFirstLetterAsync(letter)
+                        .map(meals -> new LetterBatch(letter, meals, null))
+                        .onErrorResume(e -> {
+                            log.warn("⚠️ TheMealDB lettre '{}' en échec: {}", letter, e.getMessage());
+                            return Mono.just(new LetterBatch(letter, List.of(), e));
+                        }), fetchConcurrency);
+    }
+
+    public LetterResult importMeals(List<TheMealDbClient.MealDto> meals) {
+        long start = System.currentTimeMillis();
+
+        // 1) dédoublonnage en mémoire + une requête "externalId IN (...)" par paquet de 1000
+        Map<String, TheMealDbClient.MealDto> byExternalId = new LinkedHashMap<>();
+        for (TheMealDbClient.MealDto meal : meals) {
+            if (meal.idMeal != null) {
+                byExternalId.putIfAbsent(meal.idMeal, meal);
             }
         }
-        return count;
+        Set<String> existing = new HashSet<>();
+        List<String> ids = new ArrayList<>(byExternalId.keySet());
+        for (int i = 0; i < ids.size(); i += LOOKUP_CHUNK_SIZE) {
+            existing.addAll(recipeRepository.findExistingExternalIds(
+                    ids.subList(i, Math.min(i + LOOKUP_CHUNK_SIZE, ids.size()))));
+        }
+        List<Recipe> toCreate = byExternalId.values().stream()
+                .filter(meal -> !existing.contains(meal.idMeal))
+                .map(meal -> recipeService.toEntity(mapMealToRecipe(meal), meal.idMeal))
+                .toList();
+        long lookedUpAt = System.currentTimeMillis();
+
+        // 2) insertion par lots (une transaction par lot, inserts JDBC batchés)
+        int created = 0;
+        for (int i = 0; i < toCreate.size(); i += persistChunkSize) {
+            List<Recipe> saved = recipeService.saveAllNew(
+                    toCreate.subList(i, Math.min(i + persistChunkSize, toCreate.size())));
+            saved.forEach(keywordIndex::add);
+            created += saved.size();
+        }
+
+        return new LetterResult(
+                meals.size(),
+                meals.size() - byExternalId.size(),
+                existing.size(),
+                created,
+                lookedUpAt - start,
+                System.currentTimeMillis() - lookedUpAt
+        );
+    }
+
+    // empreinte du contenu d'une page : inchangée => rien à retraiter en mode incrémental
+    public String contentHash(List<TheMealDbClient.MealDto> meals) {
+        try {
+            List<TheMealDbClient.MealDto> sorted = meals.stream()
+                    .sorted(Comparator.comparing(m -> m.idMeal == null ? "" : m.idMeal))
+                    .toList();
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(HASH_MAPPER.writeValueAsBytes(sorted));
+            return HexFormat.of().formatHex(digest);
+        } catch (Exception e) {
+            throw new IllegalStateException("Hash de page TheMealDB impossible", e);
+        }
     }
 
     private RecipeCreateRequest mapMealToRecipe(TheMealDbClient.MealDto m) {
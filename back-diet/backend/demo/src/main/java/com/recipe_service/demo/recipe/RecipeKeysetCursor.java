@@ -0,0 +1,100 @@
+package com.recipe_service.demo.recipe;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Curseur opaque pour la pagination par clé (keyset / seek) des recettes.
+ * Encode la dernière clé de tri vue (titre+id ou calories+id) : la page suivante
+ * est un simple "WHERE (clé, id) > (dernière clé, dernier id)" sans OFFSET ni COUNT.
+ */
+public record RecipeKeysetCursor(SortKey sortKey, String value, UUID id) {
+
+    public enum SortKey {
+        TITLE("title"),
+        CALORIES("calories");
+
+        private final String attribute;
+
+        SortKey(String attribute) {
+            this.attribute = attribute;
+        }
+
+        // ordre stable : clé puis id (PostgreSQL : NULLS LAST en ASC)
+        public Sort sort() {
+            return Sort.by(Sort.Order.asc(attribute), Sort.Order.asc("id"));
+        }
+
+        public static SortKey parse(String value) {
+            if (value == null || value.isBlank()) {
+                return TITLE;
+            }
+            try {
+                return SortKey.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tri inconnu: " + value);
+            }
+        }
+    }
+
+    public static RecipeKeysetCursor of(SortKey sortKey, RecipeCard last) {
+        String value = switch (sortKey) {
+            case TITLE -> last.title();
+            case CALORIES -> last.calories() != null ? last.calories().toString() : "";
+        };
+        return new RecipeKeysetCursor(sortKey, value, last.id());
+    }
+
+    // format interne : "SORT:id:valeur" en base64url (la valeur en dernier, elle peut contenir ':')
+    public String encode() {
+        String raw = sortKey.name() + ":" + id + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RecipeKeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            return new RecipeKeysetCursor(SortKey.valueOf(parts[0]), parts[2], UUID.fromString(parts[1]));
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur invalide");
+        }
+    }
+
+    // lignes strictement après ce curseur dans l'ordre sortKey.sort()
+    public Specification<Recipe> after() {
+        return (root, query, cb) -> switch (sortKey) {
+            case TITLE -> cb.and(
+                    cb.greaterThanOrEqualTo(root.<String>get("title"), value),
+                    cb.or(
+                            cb.greaterThan(root.<String>get("title"), value),
+                            cb.greaterThan(root.<UUID>get("id"), id)
+                    )
+            );
+            case CALORIES -> {
+                if (value.isEmpty()) {
+                    // déjà dans la zone des calories NULL (triées en dernier)
+                    yield cb.and(cb.isNull(root.<Integer>get("calories")), cb.greaterThan(root.<UUID>get("id"), id));
+                }
+                Integer calories = Integer.valueOf(value);
+                yield cb.or(
+                        cb.and(
+                                cb.greaterThanOrEqualTo(root.<Integer>get("calories"), calories),
+                                cb.or(
+                                        cb.greaterThan(root.<Integer>get("calories"), calories),
+                                        cb.greaterThan(root.<UUID>get("id"), id)
+                                )
+                        ),
+                        cb.isNull(root.<Integer>get("calories"))
+                );
+            }
+        };
+    }
+}
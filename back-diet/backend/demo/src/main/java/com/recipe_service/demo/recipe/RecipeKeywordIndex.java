@@ -0,0 +1,249 @@
+package com.recipe_service.demo.recipe;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire (titre, tags, ingrédients) utilisé par le chat recettes.
+ * Construit au démarrage depuis RecipeRepository puis mis à jour à chaque création de recette.
+ * Scoring BM25, le titre compte double.
+ */
+@Slf4j
+@Component
+public class RecipeKeywordIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_BOOST = 2;
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    // mots trop fréquents dans les prompts pour être discriminants
+    private static final Set<String> STOP_WORDS = Set.of(
+            "de", "du", "des", "la", "le", "les", "un", "une", "et", "ou", "au", "aux", "avec", "sans",
+            "pour", "en", "dans", "sur", "je", "tu", "me", "moi", "veux", "voudrais", "donne", "propose",
+            "recette", "recettes", "plat", "plats", "quelque", "chose", "quoi", "est", "ce", "qui", "que",
+            "the", "with", "and", "or", "of", "for", "to", "in", "an", "some", "recipe", "recipes", "want", "give"
+    );
+
+    public record IndexedRecipe(
+            UUID id,
+            String title,
+            String imageUrl,
+            String category,
+            String area,
+            Integer calories,
+            Integer readyInMinutes
+    ) { }
+
+    public record Hit(IndexedRecipe recipe, double score) { }
+
+    private record Document(IndexedRecipe recipe, Map<String, Integer> termFrequencies, int length) { }
+
+    // contenu complet de l'index : reconstruit à part puis remplacé d'un bloc
+    private static final class Snapshot {
+        private final Map<UUID, Document> documents = new HashMap<>();
+        private final Map<String, Map<UUID, Integer>> postings = new HashMap<>();
+        private long totalLength = 0;
+    }
+
+    private final RecipeRepository repository;
+
+    // lecture : search / size ; écriture : add (modifie l'instantané en place) et échange de l'instantané
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Snapshot snapshot = new Snapshot();
+
+    // recettes ajoutées pendant un rebuild (protégé par le verrou en écriture), rejouées sur le nouvel instantané
+    private List<Recipe> addedDuringRebuild;
+
+    public RecipeKeywordIndex(RecipeRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Reconstruit l'index page par page sans verrou : les recherches continuent sur l'ancien instantané,
+     * le nouveau le remplace en une affectation (avec les recettes ajoutées entre-temps).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            addedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Snapshot rebuilt = new Snapshot();
+        boolean complete = false;
+        try {
+            int pageNumber = 0;
+            Page<Recipe> page;
+            do {
+                page = repository.findAll(PageRequest.of(pageNumber++, REBUILD_PAGE_SIZE, Sort.by("id")));
+                page.forEach(recipe -> addTo(rebuilt, recipe));
+            } while (page.hasNext());
+            complete = true;
+        } catch (Exception e) {
+            log.warn("⚠️ Index recettes non construit: {}", e.getMessage());
+        }
+
+        Snapshot current;
+        lock.writeLock().lock();
+        try {
+            if (complete) {
+                addedDuringRebuild.forEach(recipe -> addTo(rebuilt, recipe));
+                snapshot = rebuilt;
+            }
+            addedDuringRebuild = null;
+            current = snapshot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("✓ Index recettes: {} recettes, {} termes en {} ms",
+                current.documents.size(), current.postings.size(), System.currentTimeMillis() - start);
+    }
+
+    // ajoute ou remplace la recette dans l'index
+    public void add(Recipe recipe) {
+        if (recipe == null || recipe.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            addTo(snapshot, recipe);
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.add(recipe);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Hit> search(String prompt, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(tokenize(prompt)));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Snapshot index = snapshot;
+            int n = index.documents.size();
+            if (n == 0) {
+                return List.of();
+            }
+            double avgLength = (double) index.totalLength / n;
+
+            Map<UUID, Double> scores = new HashMap<>();
+            for (String term : queryTerms) {
+                Map<UUID, Integer> termPostings = index.postings.get(term);
+                if (termPostings == null) continue;
+
+                int df = termPostings.size();
+                double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+                for (Map.Entry<UUID, Integer> posting : termPostings.entrySet()) {
+                    int tf = posting.getValue();
+                    int docLength = index.documents.get(posting.getKey()).length();
+                    double norm = tf + K1 * (1 - B + B * docLength / avgLength);
+                    scores.merge(posting.getKey(), idf * tf * (K1 + 1) / norm, Double::sum);
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed())
+                    .limit(limit)
+                    .map(e -> new Hit(index.documents.get(e.getKey()).recipe(), e.getValue()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return snapshot.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void addTo(Snapshot index, Recipe recipe) {
+        removeFrom(index, recipe.getId());
+
+        Map<String, Integer> tf = new HashMap<>();
+        for (String term : tokenize(recipe.getTitle())) {
+            tf.merge(term, TITLE_BOOST, Integer::sum);
+        }
+        for (String term : tokenize(recipe.getTags())) {
+            tf.merge(term, 1, Integer::sum);
+        }
+        for (String ingredient : RecipeSearchDocument.ingredientNames(recipe.getIngredientsJson())) {
+            for (String term : tokenize(ingredient)) {
+                tf.merge(term, 1, Integer::sum);
+            }
+        }
+        if (tf.isEmpty()) {
+            return;
+        }
+
+        int length = tf.values().stream().mapToInt(Integer::intValue).sum();
+        IndexedRecipe indexed = new IndexedRecipe(
+                recipe.getId(),
+                recipe.getTitle(),
+                recipe.getImageUrl(),
+                recipe.getCategory(),
+                recipe.getArea(),
+                recipe.getCalories(),
+                (recipe.getPrepMinutes() != null ? recipe.getPrepMinutes() : 0)
+                        + (recipe.getCookMinutes() != null ? recipe.getCookMinutes() : 0)
+        );
+        index.documents.put(recipe.getId(), new Document(indexed, tf, length));
+        tf.forEach((term, count) -> index.postings.computeIfAbsent(term, t -> new HashMap<>()).put(recipe.getId(), count));
+        index.totalLength += length;
+    }
+
+    private static void removeFrom(Snapshot index, UUID id) {
+        Document previous = index.documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.termFrequencies().keySet()) {
+            Map<UUID, Integer> termPostings = index.postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(id);
+                if (termPostings.isEmpty()) {
+                    index.postings.remove(term);
+                }
+            }
+        }
+        index.totalLength -= previous.length();
+    }
+
+    // minuscules, sans accents, sans mots vides : "Crème brûlée au Poulet" -> [creme, brulee, poulet]
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        for (String term : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (term.length() >= 2 && !STOP_WORDS.contains(term)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
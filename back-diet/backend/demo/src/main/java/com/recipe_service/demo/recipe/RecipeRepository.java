@@ -1,15 +1,19 @@
 package com.recipe_service.demo.recipe;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface RecipeRepository
-        extends JpaRepository<Recipe, UUID>, JpaSpecificationExecutor<Recipe> {
+        extends JpaRepository<Recipe, UUID>, JpaSpecificationExecutor<Recipe>, RecipeCardRepository {
     
     // ✅ Pagination automatiquement héritée de JpaRepository:
     // Page<Recipe> findAll(Pageable pageable);
@@ -17,13 +21,36 @@ public interface RecipeRepository
     // ✅ Pagination automatiquement héritée de JpaSpecificationExecutor:
     // Page<Recipe> findAll(Specification<Recipe> spec, Pageable pageable);
 
+    // ✅ Listes sans les colonnes @Lob : voir RecipeCardRepository.findCards
+
     Optional<Recipe> findByExternalId(String externalId);
 
+    // ✅ Import : un seul aller-retour pour savoir quelles recettes existent déjà
+    @Query("SELECT r.externalId FROM Recipe r WHERE r.externalId IN :externalIds")
+    List<String> findExistingExternalIds(@Param("externalIds") Collection<String> externalIds);
+
     List<Recipe> findTop10ByTitleContainingIgnoreCaseOrTagsContainingIgnoreCase(
             String title,
             String tags
     );
 
+    // ✅ Recalcul nutrition par morceaux : ids suivants (keyset sur id), éventuellement seulement les périmés
+    @Query("""
+            SELECT r.id FROM Recipe r
+            WHERE r.id > :after
+              AND (:onlyStale = false
+                   OR r.nutritionHash IS NULL
+                   OR r.nutritionHash <> r.ingredientsHash
+                   OR r.nutritionComputedAt < :staleBefore)
+            ORDER BY r.id""")
+    List<UUID> findNutritionCandidateIds(@Param("after") UUID after,
+                                         @Param("onlyStale") boolean onlyStale,
+                                         @Param("staleBefore") LocalDateTime staleBefore,
+                                         Limit limit);
+
     @Query("SELECT DISTINCT r.category FROM Recipe r WHERE r.category IS NOT NULL")
     List<String> findDistinctCategories();
+
+    @Query("SELECT DISTINCT r.area FROM Recipe r WHERE r.area IS NOT NULL")
+    List<String> findDistinctAreas();
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.recipe_service.demo.recipe;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.UUID;
 
 public class RecipeResponse {
@@ -22,6 +24,9 @@ public class RecipeResponse {
     private String instructions;
     private String ingredientsJson;
 
+    // ETag fort du détail (empreinte du contenu), calculé une fois par RecipeService.findById
+    @JsonIgnore
+    private String etag;
 
     public RecipeResponse() {
     }
@@ -190,4 +195,10 @@ public class RecipeResponse {
     public void setIngredientsJson(String ingredientsJson) {
         this.ingredientsJson = ingredientsJson;
     }
+    public String getEtag() {
+        return etag;
+    }
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
 }
@@ -8,6 +8,7 @@ import java.util.List;
 public class RecipeSearchCriteriaParser {
 
     // search=title:poulet,category:Vegetarian,calories<700
+    // "title:" et le texte libre (ex: search=poulet curry,calories<700) passent par l'index plein texte
     public static Specification<Recipe> parse(String search) {
         if (search == null || search.isBlank()) {
             return null; // pas de filtre
@@ -15,14 +16,14 @@ public class RecipeSearchCriteriaParser {
 
         String[] tokens = search.split(",");
         List<Specification<Recipe>> specs = new ArrayList<>();
+        List<String> fullTextTerms = new ArrayList<>();
 
         for (String token : tokens) {
             token = token.trim();
             if (token.isEmpty()) continue;
 
             if (token.startsWith("title:")) {
-                String value = token.substring("title:".length());
-                specs.add(RecipeSpecification.titleContainsIgnoreCase(value));
+                fullTextTerms.add(token.substring("title:".length()));
             } else if (token.startsWith("category:")) {
                 String value = token.substring("category:".length());
                 specs.add(RecipeSpecification.categoryEquals(value));
@@ -35,10 +36,18 @@ public class RecipeSearchCriteriaParser {
             } else if (token.startsWith("calories>")) {
                 Integer value = Integer.valueOf(token.substring("calories>".length()));
                 specs.add(RecipeSpecification.caloriesGreaterThan(value));
+            } else if (!token.contains(":") && !token.contains("<") && !token.contains(">")) {
+                // texte libre
+                fullTextTerms.add(token);
             }
             // tu pourras ajouter tags:, source:, etc. plus tard
         }
 
+        Specification<Recipe> fullText = RecipeSpecification.fullTextMatches(String.join(" ", fullTextTerms));
+        if (fullText != null) {
+            specs.add(fullText);
+        }
+
         if (specs.isEmpty()) {
             return null;
         }
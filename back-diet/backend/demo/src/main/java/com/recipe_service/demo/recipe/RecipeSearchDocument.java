@@ -0,0 +1,75 @@
+package com.recipe_service.demo.recipe;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Construit le document texte indexé pour la recherche plein texte des recettes
+ * et transforme une saisie utilisateur en tsquery PostgreSQL.
+ */
+public final class RecipeSearchDocument {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private RecipeSearchDocument() {
+    }
+
+    // tags + catégorie + zone + noms d'ingrédients (le titre est indexé à part, avec un poids plus fort)
+    public static String buildSearchText(Recipe recipe) {
+        StringJoiner joiner = new StringJoiner(" ");
+        addIfPresent(joiner, recipe.getTags() != null ? recipe.getTags().replace(',', ' ') : null);
+        addIfPresent(joiner, recipe.getCategory());
+        addIfPresent(joiner, recipe.getArea());
+        for (String name : ingredientNames(recipe.getIngredientsJson())) {
+            joiner.add(name);
+        }
+        return joiner.toString();
+    }
+
+    // ingredientsJson = [{ "name": "...", "quantity": ... }, ...]
+    public static List<String> ingredientNames(String ingredientsJson) {
+        List<String> names = new ArrayList<>();
+        if (ingredientsJson == null || ingredientsJson.isBlank()) {
+            return names;
+        }
+        try {
+            JsonNode root = MAPPER.readTree(ingredientsJson);
+            if (root.isArray()) {
+                for (JsonNode ing : root) {
+                    String name = ing.path("name").asText("");
+                    if (!name.isBlank()) {
+                        names.add(name.trim());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // JSON invalide : on indexe simplement sans les ingrédients
+        }
+        return names;
+    }
+
+    // "poulet curr" -> "poulet:* & curr:*" (préfixes, pour la recherche au fil de la frappe)
+    public static String toPrefixTsQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringJoiner joiner = new StringJoiner(" & ");
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                joiner.add(term + ":*");
+            }
+        }
+        return joiner.length() == 0 ? null : joiner.toString();
+    }
+
+    private static void addIfPresent(StringJoiner joiner, String value) {
+        if (value != null && !value.isBlank()) {
+            joiner.add(value.trim());
+        }
+    }
+}
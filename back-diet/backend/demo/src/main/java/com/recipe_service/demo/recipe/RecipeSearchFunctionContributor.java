@@ -0,0 +1,42 @@
+package com.recipe_service.demo.recipe;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Fonctions SQL de recherche plein texte utilisables depuis les Specification JPA.
+ *
+ * L'expression tsvector ci-dessous doit rester IDENTIQUE à celle de l'index GIN
+ * idx_recipes_search (V2__Recipe_full_text_search.sql), sinon PostgreSQL n'utilise plus l'index.
+ * Enregistrée via META-INF/services/org.hibernate.boot.model.FunctionContributor.
+ */
+public class RecipeSearchFunctionContributor implements FunctionContributor {
+
+    static final String MATCH_FUNCTION = "recipe_fts_match";
+    static final String RANK_FUNCTION = "recipe_fts_rank";
+
+    // ?1 = title (poids A), ?2 = search_text (poids B)
+    private static final String SEARCH_VECTOR =
+            "(setweight(to_tsvector('simple', coalesce(?1, '')), 'A')"
+                    + " || setweight(to_tsvector('simple', coalesce(?2, '')), 'B'))";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        var basicTypes = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        BasicType<Boolean> booleanType = basicTypes.resolve(StandardBasicTypes.BOOLEAN);
+        BasicType<Double> doubleType = basicTypes.resolve(StandardBasicTypes.DOUBLE);
+
+        functionContributions.getFunctionRegistry().registerPattern(
+                MATCH_FUNCTION,
+                "(" + SEARCH_VECTOR + " @@ to_tsquery('simple', ?3))",
+                booleanType
+        );
+        functionContributions.getFunctionRegistry().registerPattern(
+                RANK_FUNCTION,
+                "ts_rank(" + SEARCH_VECTOR + ", to_tsquery('simple', ?3))",
+                doubleType
+        );
+    }
+}
@@ -1,10 +1,18 @@
 package com.recipe_service.demo.recipe;
 
-import org.springframework.data.domain.Page;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.StringJoiner;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -12,32 +20,43 @@ import java.util.stream.Collectors;
 public class RecipeService {
 
     private final RecipeRepository repository;
+    private final RecipeKeywordIndex keywordIndex;
 
-    public RecipeService(RecipeRepository repository) {
+    public RecipeService(RecipeRepository repository,
+                         RecipeKeywordIndex keywordIndex) {
         this.repository = repository;
+        this.keywordIndex = keywordIndex;
     }
 
     // ✅ ANCIEN - Retourne TOUTES les recettes (pour compatibilité)
     public List<RecipeResponse> findAll() {
-        return repository.findAll()
+        return findAll(Pageable.unpaged());
+    }
+
+    // ✅ NOUVEAU - Avec pagination (cartes sans colonnes @Lob, sans COUNT)
+    public List<RecipeResponse> findAll(Pageable pageable) {
+        return repository.findCards(null, pageable)
                 .stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
-    // ✅ NOUVEAU - Avec pagination
-    public Page<RecipeResponse> findAll(Pageable pageable) {
-        return repository.findAll(pageable)
-                .map(this::toResponse);
-    }
-
+    // détail complet (instructions + ingrédients) : seul endroit qui charge l'entité entière
+    // + ETag calculé ici, une fois : il reste dans l'entrée du cache avec la réponse
+    @Cacheable(RecipeCaches.RECIPE_BY_ID)
     public RecipeResponse findById(UUID id) {
         Recipe recipe = repository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Recipe not found"));
-        return toResponse(recipe);
+        RecipeResponse response = toResponse(recipe);
+        response.setEtag(contentETag(response));
+        return response;
     }
 
     // --- création avec éventuel externalId (TheMealDB, etc.) ---
+    @Caching(evict = {
+            @CacheEvict(value = RecipeCaches.CATEGORIES, allEntries = true),
+            @CacheEvict(value = RecipeCaches.AREAS, allEntries = true)
+    })
     public RecipeResponse create(RecipeCreateRequest req, String externalId) {
         if (externalId != null) {
             var existing = repository.findByExternalId(externalId);
@@ -46,6 +65,23 @@ public class RecipeService {
             }
         }
 
+        Recipe recipe = toEntity(req, externalId);
+        Recipe saved = repository.save(recipe);
+        keywordIndex.add(saved);
+        return toResponse(saved);
+    }
+
+    // --- import en masse : un seul saveAll par lot -> inserts JDBC batchés (hibernate.jdbc.batch_size) ---
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = RecipeCaches.CATEGORIES, allEntries = true),
+            @CacheEvict(value = RecipeCaches.AREAS, allEntries = true)
+    })
+    public List<Recipe> saveAllNew(List<Recipe> recipes) {
+        return repository.saveAll(recipes);
+    }
+
+    public Recipe toEntity(RecipeCreateRequest req, String externalId) {
         Recipe recipe = new Recipe();
         recipe.setTitle(req.getTitle());
         recipe.setShortDescription(req.getShortDescription());
@@ -64,45 +100,110 @@ public class RecipeService {
         recipe.setTags(req.getTags());
         recipe.setInstructions(req.getInstructions());
         recipe.setIngredientsJson(req.getIngredientsJson());
-
-        Recipe saved = repository.save(recipe);
-        return toResponse(saved);
+        return recipe;
     }
 
     // --- utilisée par ton POST normal /api/recipes ---
+    // appel interne à create(req, null) : hors proxy, ses @CacheEvict ne s'appliquent pas -> répétés ici
+    @Caching(evict = {
+            @CacheEvict(value = RecipeCaches.CATEGORIES, allEntries = true),
+            @CacheEvict(value = RecipeCaches.AREAS, allEntries = true)
+    })
     public RecipeResponse create(RecipeCreateRequest req) {
         return create(req, null);
     }
 
     // --- obtenir la liste des catégories distinctes ---
+    @Cacheable(RecipeCaches.CATEGORIES)
     public List<String> getAllCategories() {
         return repository.findDistinctCategories();
     }
 
+    // --- obtenir la liste des zones (cuisines) distinctes ---
+    @Cacheable(RecipeCaches.AREAS)
+    public List<String> getAllAreas() {
+        return repository.findDistinctAreas();
+    }
+
     // ✅ ANCIEN - Recherche TOUTES les recettes (pour compatibilité)
     public List<RecipeResponse> search(String searchQuery) {
+        return search(searchQuery, Pageable.unpaged());
+    }
+
+    // ✅ NOUVEAU - Recherche avec pagination
+    public List<RecipeResponse> search(String searchQuery, Pageable pageable) {
         Specification<Recipe> spec = RecipeSearchCriteriaParser.parse(searchQuery);
-        List<Recipe> recipes;
-        if (spec == null) {
-            recipes = repository.findAll();
-        } else {
-            recipes = repository.findAll(spec);
-        }
-        return recipes.stream()
+        return repository.findCards(spec, pageable)
+                .stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
-    // ✅ NOUVEAU - Recherche avec pagination
-    public Page<RecipeResponse> search(String searchQuery, Pageable pageable) {
-        Specification<Recipe> spec = RecipeSearchCriteriaParser.parse(searchQuery);
-        Page<Recipe> recipes;
-        if (spec == null) {
-            recipes = repository.findAll(pageable);
-        } else {
-            recipes = repository.findAll(spec, pageable);
+    // ✅ NOUVEAU - Pagination par curseur (keyset) : pas d'OFFSET ni de COUNT(*)
+    public RecipeCursorPage scroll(String searchQuery, String after, String sort, int size) {
+        RecipeKeysetCursor cursor = after != null && !after.isBlank() ? RecipeKeysetCursor.decode(after) : null;
+        // le tri est figé par le curseur une fois le scroll commencé
+        RecipeKeysetCursor.SortKey sortKey = cursor != null ? cursor.sortKey() : RecipeKeysetCursor.SortKey.parse(sort);
+        int limit = Math.max(size, 1);
+
+        Specification<Recipe> spec = Specification.where(RecipeSearchCriteriaParser.parse(searchQuery));
+        if (cursor != null) {
+            spec = spec.and(cursor.after());
         }
-        return recipes.map(this::toResponse);
+
+        // size + 1 lignes : la dernière sert seulement à savoir s'il y a une page suivante
+        List<RecipeCard> rows = repository.findCards(spec, sortKey.sort(), limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<RecipeCard> content = hasNext ? rows.subList(0, limit) : rows;
+
+        String nextCursor = hasNext
+                ? RecipeKeysetCursor.of(sortKey, content.get(content.size() - 1)).encode()
+                : null;
+        return new RecipeCursorPage(
+                content.stream().map(this::toResponse).collect(Collectors.toList()),
+                nextCursor,
+                hasNext
+        );
+    }
+
+    // liste : instructions / ingredientsJson restent null (chargés seulement dans findById)
+    // SHA-256 de tous les champs renvoyés : même contenu => même ETag, quel que soit le chemin d'écriture
+    static String contentETag(RecipeResponse r) {
+        StringJoiner content = new StringJoiner("\u0000");
+        for (Object field : new Object[] {
+                r.getId(), r.getTitle(), r.getShortDescription(), r.getImageUrl(), r.getSource(), r.getServings(),
+                r.getCalories(), r.getPrepMinutes(), r.getCookMinutes(), r.getProteinG(), r.getCarbsG(), r.getFatG(),
+                r.getCategory(), r.getArea(), r.getTags(), r.getInstructions(), r.getIngredientsJson()}) {
+            content.add(String.valueOf(field));
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private RecipeResponse toResponse(RecipeCard c) {
+        return new RecipeResponse(
+                c.id(),
+                c.title(),
+                c.shortDescription(),
+                c.imageUrl(),
+                c.source(),
+                c.servings(),
+                c.calories(),
+                c.prepMinutes(),
+                c.cookMinutes(),
+                c.proteinG(),
+                c.carbsG(),
+                c.fatG(),
+                c.category(),
+                c.area(),
+                c.tags(),
+                null,
+                null
+        );
     }
 
     private RecipeResponse toResponse(Recipe r) {
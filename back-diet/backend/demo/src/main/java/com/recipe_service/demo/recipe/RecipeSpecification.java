@@ -9,6 +9,30 @@ public class RecipeSpecification {
                 cb.like(cb.lower(root.get("title")), "%" + value.toLowerCase() + "%");
     }
 
+    // recherche plein texte (titre, tags, catégorie, zone, ingrédients) triée par pertinence
+    public static Specification<Recipe> fullTextMatches(String text) {
+        String tsQuery = RecipeSearchDocument.toPrefixTsQuery(text);
+        if (tsQuery == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            var title = root.<String>get("title");
+            var searchText = root.<String>get("searchText");
+            var tsQueryParam = cb.literal(tsQuery);
+
+            // pas de tri sur la requête COUNT de la pagination
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                query.orderBy(
+                        cb.desc(cb.function(RecipeSearchFunctionContributor.RANK_FUNCTION, Double.class,
+                                title, searchText, tsQueryParam)),
+                        cb.asc(root.get("id"))
+                );
+            }
+            return cb.isTrue(cb.function(RecipeSearchFunctionContributor.MATCH_FUNCTION, Boolean.class,
+                    title, searchText, tsQueryParam));
+        };
+    }
+
     public static Specification<Recipe> categoryEquals(String value) {
         return (root, query, cb) ->
                 cb.equal(root.get("category"), value);
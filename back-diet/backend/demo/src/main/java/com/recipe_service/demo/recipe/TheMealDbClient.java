@@ -18,17 +18,20 @@ public class TheMealDbClient {
     }
 
     public List<MealDto> searchByFirstLetter(char letter) {
-        Mono<MealsResponse> mono = webClient.get()
+        return searchByFirstLetterAsync(letter).block();
+    }
+
+    // ✅ Version non bloquante (import concurrent, voir RecipeImportService)
+    public Mono<List<MealDto>> searchByFirstLetterAsync(char letter) {
+        return webClient.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/search.php")
                         .queryParam("f", String.valueOf(letter))
                         .build())
                 .retrieve()
-                .bodyToMono(MealsResponse.class);
-
-        MealsResponse response = mono.block();
-        return response == null ? List.of() :
-               response.meals == null ? List.of() : response.meals;
+                .bodyToMono(MealsResponse.class)
+                .map(response -> response.meals == null ? List.<MealDto>of() : response.meals)
+                .defaultIfEmpty(List.of());
     }
 
     // ========= DTOs TheMealDB =========
@@ -0,0 +1,11 @@
+package com.recipe_service.demo.tracking;
+
+/**
+ * Repas + jour, pour l'import multi-jours (POST /api/day-tracking/meals:batch)
+ */
+public class DatedMealDto extends DayMealDto {
+    private String date; // yyyy-MM-dd
+
+    public String getDate() { return date; }
+    public void setDate(String date) { this.date = date; }
+}
@@ -0,0 +1,10 @@
+package com.recipe_service.demo.tracking;
+
+import java.util.List;
+
+// Résultat d'un ajout groupé : nombre de repas insérés + totaux des jours touchés
+public record DayMealBatchResultDto(
+        int mealsInserted,
+        int daysAffected,
+        List<DayTrackingDto> days
+) { }
@@ -0,0 +1,53 @@
+package com.recipe_service.demo.tracking;
+
+/**
+ * Photo des totaux d'un jour : la différence avant/après une écriture est le delta
+ * appliqué aux résumés hebdo/mensuels (DayTrackingSummaryService).
+ * daysLogged = 1 si le jour a au moins un repas, daysActive = 1 s'il a une dépense (calories brûlées).
+ */
+public record DayTotals(
+        int caloriesIn,
+        int proteinIn,
+        int carbsIn,
+        int fatIn,
+        int caloriesOut,
+        int workoutMinutes,
+        int totalSets,
+        int daysLogged,
+        int daysActive
+) {
+
+    public static final DayTotals ZERO = new DayTotals(0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    public static DayTotals of(DayTracking tracking) {
+        return new DayTotals(
+                tracking.getCaloriesIn(),
+                tracking.getProteinIn(),
+                tracking.getCarbsIn(),
+                tracking.getFatIn(),
+                tracking.getCaloriesOut(),
+                tracking.getTotalWorkoutMinutes(),
+                tracking.getTotalSets(),
+                tracking.getMeals().isEmpty() ? 0 : 1,
+                tracking.getCaloriesOut() > 0 ? 1 : 0
+        );
+    }
+
+    public DayTotals minus(DayTotals other) {
+        return new DayTotals(
+                caloriesIn - other.caloriesIn,
+                proteinIn - other.proteinIn,
+                carbsIn - other.carbsIn,
+                fatIn - other.fatIn,
+                caloriesOut - other.caloriesOut,
+                workoutMinutes - other.workoutMinutes,
+                totalSets - other.totalSets,
+                daysLogged - other.daysLogged,
+                daysActive - other.daysActive
+        );
+    }
+
+    public boolean isZero() {
+        return equals(ZERO);
+    }
+}
@@ -1,7 +1,10 @@
 package com.recipe_service.demo.tracking;
 
 import jakarta.persistence.*;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.UUID;
 
 @Entity
@@ -33,6 +36,37 @@ public class DayTracking {
     @Column(name = "total_sets", nullable = false)
     private Integer totalSets = 0;
 
+    // ✅ Totaux macros du jour (g), maintenus comme caloriesIn
+    @Column(name = "protein_in", nullable = false)
+    private Integer proteinIn = 0;
+
+    @Column(name = "carbs_in", nullable = false)
+    private Integer carbsIn = 0;
+
+    @Column(name = "fat_in", nullable = false)
+    private Integer fatIn = 0;
+
+    // ✅ Verrou optimiste : deux écritures concurrentes sur le même jour ne peuvent pas perdre un delta
+    // null tant que non persisté : Spring Data s'en sert pour isNew() (save() = persist, pas merge) ; 0 au premier insert
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // ✅ Dernière écriture : touch() rend le jour "dirty" -> version incrémentée même si les totaux ne bougent pas
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt = Instant.now();
+
+    // ✅ Repas / entraînements du jour, chargés avec le jour (voir DayTrackingRepository.findWithItemsByUserIdAndDate)
+    // Lecture seule : la FK est écrite via DayMeal.dayTrackingId / DayWorkout.dayTrackingId
+    // Set et pas List : Hibernate ne sait pas charger deux List (bags) dans la même requête
+    @OneToMany(fetch = FetchType.LAZY)
+    @JoinColumn(name = "day_tracking_id", insertable = false, updatable = false)
+    private Set<DayMeal> meals = new LinkedHashSet<>();
+
+    @OneToMany(fetch = FetchType.LAZY)
+    @JoinColumn(name = "day_tracking_id", insertable = false, updatable = false)
+    private Set<DayWorkout> workouts = new LinkedHashSet<>();
+
     // Constructors
     public DayTracking() {}
 
@@ -65,4 +99,40 @@ public class DayTracking {
 
     public Integer getTotalSets() { return totalSets; }
     public void setTotalSets(Integer totalSets) { this.totalSets = totalSets; }
+
+    public Integer getProteinIn() { return proteinIn; }
+    public void setProteinIn(Integer proteinIn) { this.proteinIn = proteinIn; }
+
+    public Integer getCarbsIn() { return carbsIn; }
+    public void setCarbsIn(Integer carbsIn) { this.carbsIn = carbsIn; }
+
+    public Integer getFatIn() { return fatIn; }
+    public void setFatIn(Integer fatIn) { this.fatIn = fatIn; }
+
+    public Long getVersion() { return version; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+
+    public void touch() { this.updatedAt = Instant.now(); }
+
+    public Set<DayMeal> getMeals() { return meals; }
+    public Set<DayWorkout> getWorkouts() { return workouts; }
+
+    // ✅ Totaux courants : on applique le delta du repas (sign = +1 ajout, -1 retrait), en O(1)
+    public void applyMeal(DayMeal meal, int sign) {
+        caloriesIn += sign * orZero(meal.getCalories());
+        proteinIn += sign * orZero(meal.getProtein());
+        carbsIn += sign * orZero(meal.getCarbs());
+        fatIn += sign * orZero(meal.getFat());
+    }
+
+    public void applyWorkout(DayWorkout workout, int sign) {
+        caloriesOut += sign * orZero(workout.getCaloriesBurned());
+        totalWorkoutMinutes += sign * orZero(workout.getDurationMin());
+        totalSets += sign * orZero(workout.getTotalSets());
+    }
+
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
+    }
 }
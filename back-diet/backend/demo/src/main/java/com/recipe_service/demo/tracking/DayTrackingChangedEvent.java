@@ -0,0 +1,7 @@
+package com.recipe_service.demo.tracking;
+
+import java.util.UUID;
+
+// Publié par DayTrackingService à chaque écriture sur un jour, traité après commit (DayTrackingEventBus, DayTrackingSnapshotCache)
+// withItems = false : totaux seuls (ajout groupé multi-jours), meals / workouts vides
+public record DayTrackingChangedEvent(UUID userId, DayTrackingDto day, boolean withItems) { }
@@ -1,11 +1,27 @@
 package com.recipe_service.demo.tracking;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.UUID;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/day-tracking")
 @CrossOrigin(origins = "*")  // ✅ CORS OK pour localhost:4200
@@ -14,15 +30,103 @@ public class DayTrackingController {
     @Autowired
     private DayTrackingService service;
 
+    @Autowired
+    private DayTrackingSummaryService summaryService;
+
+    @Autowired
+    private WorkoutWriteBehindBuffer workoutBuffer;
+
+    @Autowired
+    private DayTrackingEventBus eventBus;
+
+    private static final int MAX_RANGE_DAYS = 366;
+    private static final Duration SSE_HEARTBEAT = Duration.ofSeconds(15);
+
+    /**
+     * ✅ GET /api/day-tracking?from=2025-01-01&to=2025-01-31
+     * Tous les jours existants de la plage (totaux), sans créer de jours vides
+     */
+    @GetMapping
+    public ResponseEntity<List<DayTrackingDto>> getRange(@RequestParam String from, @RequestParam String to) {
+        try {
+            UUID userId = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+            LocalDate start = LocalDate.parse(from);
+            LocalDate end = LocalDate.parse(to);
+            if (end.isBefore(start) || ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(service.getRange(userId, start, end));
+        } catch (DateTimeParseException e) {
+            log.error("❌ Plage invalide {} -> {}", from, to, e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * ✅ GET /api/day-tracking/rollup?period=week|month&from=...&to=...
+     * Sommes et moyennes par semaine / mois, lues dans day_tracking_summary
+     */
+    @GetMapping("/rollup")
+    public ResponseEntity<List<DayTrackingRollupDto>> getRollups(
+            @RequestParam(defaultValue = "week") String period,
+            @RequestParam String from,
+            @RequestParam String to) {
+        try {
+            UUID userId = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+            DayTrackingSummary.Period p = DayTrackingSummary.Period.valueOf(period.toUpperCase(Locale.ROOT));
+            LocalDate start = LocalDate.parse(from);
+            LocalDate end = LocalDate.parse(to);
+            if (end.isBefore(start)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(summaryService.getRollups(userId, p, start, end));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // date invalide ou period ni week ni month ; erreurs base -> 500
+            log.error("❌ Rollup invalide ({}, {} -> {})", period, from, to, e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * ✅ GET /api/day-tracking/stream?date=2025-01-15 (SSE, remplace le polling de GET /{date})
+     * Pousse le jour modifié à chaque écriture commitée (tous appareils), date optionnelle pour filtrer.
+     * "day-tracking" = jour complet, "day-totals" = totaux seuls (meals / workouts vides, recharger le jour si besoin).
+     * Un commentaire "ping" toutes les 15 s garde la connexion ouverte derrière les proxys.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<DayTrackingDto>> stream(@RequestParam(required = false) String date) {
+        UUID userId = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+        String day = date != null ? LocalDate.parse(date).toString() : null;
+
+        Flux<ServerSentEvent<DayTrackingDto>> updates = eventBus.subscribe(userId)
+                .filter(event -> day == null || day.equals(event.day().getDate()))
+                // totaux seuls (ajout groupé multi-jours) : événement à part, meals / workouts vides à ne pas appliquer
+                .map(event -> ServerSentEvent.builder(event.day())
+                        .event(event.withItems() ? "day-tracking" : "day-totals")
+                        .id(event.day().getDate())
+                        .build());
+        Flux<ServerSentEvent<DayTrackingDto>> heartbeat = Flux.interval(SSE_HEARTBEAT)
+                .map(tick -> ServerSentEvent.<DayTrackingDto>builder().comment("ping").build());
+        return Flux.merge(updates, heartbeat);
+    }
+
     /**
      * GET /api/day-tracking/{date}
+     * ✅ ETag fort (id-version) : If-None-Match à jour -> 304, vérifié avant de charger repas / entraînements
      */
     @GetMapping("/{date}")
-    public ResponseEntity<DayTrackingDto> getDayTracking(@PathVariable String date) {
+    public ResponseEntity<DayTrackingDto> getDayTracking(@PathVariable String date, WebRequest request) {
         try {
             UUID userId = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
             LocalDate day = LocalDate.parse(date);
-            return ResponseEntity.ok(service.getOrCreateTracking(userId, day));
+            if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+                Optional<String> etag = service.currentETag(userId, day);
+                if (etag.isPresent() && request.checkNotModified(etag.get())) {
+                    return null; // 304 déjà écrit par checkNotModified
+                }
+            }
+            DayTrackingDto tracking = service.getOrCreateTracking(userId, day);
+            return ResponseEntity.ok().eTag(DayTrackingVersion.etag(tracking)).body(tracking);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.badRequest().build();
@@ -66,6 +170,9 @@ public class DayTrackingController {
             LocalDate day = LocalDate.parse(date);
             DayTrackingDto result = service.updateMeal(userId, day, mealId, mealDto);
             return ResponseEntity.ok(result);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // ✅ écriture concurrente sur le même jour : le client relit et réessaie
+            return ResponseEntity.status(409).body(null);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).body(null);
@@ -81,6 +188,9 @@ public class DayTrackingController {
             LocalDate day = LocalDate.parse(date);
             DayTrackingDto result = service.deleteMeal(userId, day, mealId);
             return ResponseEntity.ok(result);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // ✅ écriture concurrente sur le même jour : le client relit et réessaie
+            return ResponseEntity.status(409).body(null);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).body(null);
@@ -100,12 +210,59 @@ public class DayTrackingController {
             LocalDate day = LocalDate.parse(date);
             DayTrackingDto result = service.addMeal(userId, day, mealDto);
             return ResponseEntity.ok(result);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // ✅ écriture concurrente sur le même jour : le client relit et réessaie
+            return ResponseEntity.status(409).body(null);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).body(null);
         }
     }
 
+    /**
+     * ✅ POST /api/day-tracking/{date}/meals:batch - plusieurs repas sur un jour, tout ou rien
+     */
+    @PostMapping("/{date}/meals:batch")
+    public ResponseEntity<DayTrackingDto> addMeals(
+            @PathVariable String date,
+            @RequestBody List<DayMealDto> meals) {
+        try {
+            log.info("📥 Batch reçu: {} repas", meals != null ? meals.size() : 0);
+            UUID userId = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+            LocalDate day = LocalDate.parse(date);
+            return ResponseEntity.ok(service.addMeals(userId, day, meals));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // ✅ écriture concurrente sur le même jour : le client relit et réessaie
+            return ResponseEntity.status(409).body(null);
+        } catch (Exception e) {
+            log.error("❌ Batch de repas du {} en échec", date, e);
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
+    /**
+     * ✅ POST /api/day-tracking/meals:batch - repas sur plusieurs jours ([{ date, recipeName, ... }])
+     * Renvoie les totaux des jours touchés (sans le détail des repas)
+     */
+    @PostMapping("/meals:batch")
+    public ResponseEntity<DayMealBatchResultDto> addMealsAcrossDays(@RequestBody List<DatedMealDto> meals) {
+        try {
+            log.info("📥 Batch multi-jours reçu: {} repas", meals != null ? meals.size() : 0);
+            UUID userId = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+            return ResponseEntity.ok(service.addMeals(userId, meals));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // ✅ écriture concurrente sur un des jours : le client relit et réessaie
+            return ResponseEntity.status(409).body(null);
+        } catch (Exception e) {
+            log.error("❌ Batch de repas multi-jours en échec", e);
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
     /**
      * POST /api/day-tracking/{date}/workouts
      */
@@ -117,8 +274,17 @@ public class DayTrackingController {
             System.out.println("📥 Workout reçu: " + workoutDto.getName());
             UUID userId = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
             LocalDate day = LocalDate.parse(date);
+            if (workoutBuffer.isEnabled()) {
+                // ✅ write-behind : accusé immédiat, totaux provisoires, écriture en base groupée plus tard
+                return ResponseEntity.accepted().body(workoutBuffer.enqueue(userId, day, workoutDto));
+            }
             DayTrackingDto result = service.addWorkout(userId, day, workoutDto);
             return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // ✅ écriture concurrente sur le même jour : le client relit et réessaie
+            return ResponseEntity.status(409).body(null);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).body(null);
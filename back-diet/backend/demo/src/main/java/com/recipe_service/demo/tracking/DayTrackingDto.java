@@ -12,6 +12,10 @@ public class DayTrackingDto {
     public Integer caloriesOut;
     public Integer totalWorkoutMinutes;
     public Integer totalSets;
+    public Integer proteinIn;
+    public Integer carbsIn;
+    public Integer fatIn;
+    public Long version;
     public List<DayMealDto> meals = new ArrayList<>();
     public List<DayWorkoutDto> workouts = new ArrayList<>();
 
@@ -23,6 +27,10 @@ public class DayTrackingDto {
     public Integer getCaloriesOut() { return caloriesOut; }
     public Integer getTotalWorkoutMinutes() { return totalWorkoutMinutes; }
     public Integer getTotalSets() { return totalSets; }
+    public Integer getProteinIn() { return proteinIn; }
+    public Integer getCarbsIn() { return carbsIn; }
+    public Integer getFatIn() { return fatIn; }
+    public Long getVersion() { return version; }
     public List<DayMealDto> getMeals() { return meals; }
     public List<DayWorkoutDto> getWorkouts() { return workouts; }
 
@@ -35,6 +43,10 @@ public class DayTrackingDto {
         dto.caloriesOut = entity.getCaloriesOut();
         dto.totalWorkoutMinutes = entity.getTotalWorkoutMinutes();
         dto.totalSets = entity.getTotalSets();
+        dto.proteinIn = entity.getProteinIn();
+        dto.carbsIn = entity.getCarbsIn();
+        dto.fatIn = entity.getFatIn();
+        dto.version = entity.getVersion();
         return dto;
     }
 }
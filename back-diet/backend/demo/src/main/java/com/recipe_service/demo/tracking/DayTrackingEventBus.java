@@ -0,0 +1,45 @@
+package com.recipe_service.demo.tracking;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bus en mémoire des changements de suivi : un sink par utilisateur, partagé par tous ses flux SSE
+ * (plusieurs appareils). Alimenté uniquement après commit : un rollback ne pousse rien.
+ */
+@Component
+public class DayTrackingEventBus {
+
+    // un abonné lent perd les plus anciens jours en attente, jamais le dernier état
+    private static final int SUBSCRIBER_BUFFER = 64;
+
+    private final Map<UUID, Sinks.Many<DayTrackingChangedEvent>> sinks = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDayTrackingChanged(DayTrackingChangedEvent event) {
+        Sinks.Many<DayTrackingChangedEvent> sink = sinks.get(event.userId());
+        if (sink == null) {
+            return; // personne n'écoute
+        }
+        // plusieurs commits simultanés pour le même utilisateur : on réessaie brièvement au lieu de perdre l'événement
+        sink.emitNext(event, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    public Flux<DayTrackingChangedEvent> subscribe(UUID userId) {
+        return Flux.defer(() -> sinks
+                        .computeIfAbsent(userId, id -> Sinks.many().multicast().directBestEffort())
+                        .asFlux())
+                .onBackpressureBuffer(SUBSCRIBER_BUFFER, BufferOverflowStrategy.DROP_OLDEST)
+                .doFinally(signal -> sinks.computeIfPresent(userId,
+                        (id, sink) -> sink.currentSubscriberCount() == 0 ? null : sink));
+    }
+}
@@ -1,14 +1,51 @@
 package com.recipe_service.demo.tracking;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface DayTrackingRepository extends JpaRepository<DayTracking, UUID> {
     Optional<DayTracking> findByUserIdAndDate(UUID userId, LocalDate date);
+
+    // ✅ Ajout groupé : jours existants + leurs repas en une requête
+    @EntityGraph(attributePaths = {"meals"})
+    List<DayTracking> findWithMealsByUserIdAndDateIn(UUID userId, Collection<LocalDate> dates);
+
+    // ✅ Historique : un seul range scan sur (user_id, date)
+    List<DayTracking> findByUserIdAndDateBetweenOrderByDateAsc(UUID userId, LocalDate from, LocalDate to);
+
+    /**
+     * ✅ Création atomique du jour : sous concurrence, une seule transaction insère,
+     * les autres ne font rien (index unique ux_day_tracking_user_date, V10).
+     * Renvoie l'id si CET appel a créé la ligne, vide sinon. Valeurs par défaut = celles de DayTracking.
+     */
+    @Transactional
+    @Query(value = """
+            INSERT INTO day_tracking (id, user_id, date, calories_target, calories_in, calories_out,
+                                      total_workout_minutes, total_sets, protein_in, carbs_in, fat_in, version)
+            VALUES (:id, :userId, :date, 2100, 0, 0, 0, 0, 0, 0, 0, 0)
+            ON CONFLICT (user_id, date) DO NOTHING
+            RETURNING id
+            """, nativeQuery = true)
+    Optional<UUID> insertIfAbsent(@Param("id") UUID id, @Param("userId") UUID userId, @Param("date") LocalDate date);
+
+    // ✅ ETag sans charger le jour ni ses repas / entraînements
+    @Query("select new com.recipe_service.demo.tracking.DayTrackingVersion(t.id, t.version) "
+            + "from DayTracking t where t.userId = :userId and t.date = :date")
+    Optional<DayTrackingVersion> findVersionByUserIdAndDate(@Param("userId") UUID userId, @Param("date") LocalDate date);
+
+    // ✅ Jour + repas + entraînements en une seule requête (LEFT JOIN FETCH)
+    @EntityGraph(attributePaths = {"meals", "workouts"})
+    Optional<DayTracking> findWithItemsByUserIdAndDate(UUID userId, LocalDate date);
 }
 
@@ -0,0 +1,55 @@
+package com.recipe_service.demo.tracking;
+
+import java.time.LocalDate;
+
+/**
+ * Résumé d'une semaine / d'un mois : sommes et moyennes par jour renseigné.
+ * Apports : par jour avec au moins un repas (daysLogged) ; calories brûlées : par jour avec une dépense (daysActive).
+ */
+public record DayTrackingRollupDto(
+        DayTrackingSummary.Period period,
+        LocalDate periodStart,
+        LocalDate periodEnd,
+        int daysLogged,
+        int daysActive,
+        long caloriesIn,
+        long proteinIn,
+        long carbsIn,
+        long fatIn,
+        long caloriesOut,
+        long workoutMinutes,
+        long totalSets,
+        double avgCaloriesIn,
+        double avgProteinIn,
+        double avgCarbsIn,
+        double avgFatIn,
+        double avgCaloriesOut
+) {
+
+    public static DayTrackingRollupDto fromEntity(DayTrackingSummary s) {
+        int days = s.getDaysLogged();
+        return new DayTrackingRollupDto(
+                s.getPeriod(),
+                s.getPeriodStart(),
+                s.getPeriod().end(s.getPeriodStart()),
+                days,
+                s.getDaysActive(),
+                s.getCaloriesIn(),
+                s.getProteinIn(),
+                s.getCarbsIn(),
+                s.getFatIn(),
+                s.getCaloriesOut(),
+                s.getWorkoutMinutes(),
+                s.getTotalSets(),
+                average(s.getCaloriesIn(), days),
+                average(s.getProteinIn(), days),
+                average(s.getCarbsIn(), days),
+                average(s.getFatIn(), days),
+                average(s.getCaloriesOut(), s.getDaysActive())
+        );
+    }
+
+    private static double average(long total, int days) {
+        return days > 0 ? Math.round(total * 10.0 / days) / 10.0 : 0;
+    }
+}
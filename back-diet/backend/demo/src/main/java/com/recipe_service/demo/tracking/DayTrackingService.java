@@ -1,15 +1,26 @@
 package com.recipe_service.demo.tracking;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+@Slf4j
 @Service
 @Transactional
 public class DayTrackingService {
@@ -23,14 +34,50 @@ public class DayTrackingService {
     @Autowired
     private DayWorkoutRepository workoutRepo;
 
+    @Autowired
+    private DayTrackingSummaryService summaryService;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private DayTrackingSnapshotCache snapshotCache;
+
+    private static final int MAX_BATCH_MEALS = 5000;
+
+    /**
+     * ✅ Vue du jour servie depuis le cache des snapshots quand elle y est (aucune requête, aucune transaction).
+     * SUPPORTS : pas de transaction ouverte pour rien sur un hit ; l'upsert a la sienne
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public DayTrackingDto getOrCreateTracking(UUID userId, LocalDate date) {
-        Optional<DayTracking> tracking = trackingRepo.findByUserIdAndDate(userId, date);
-        return tracking.map(this::entityToDto)
-                .orElseGet(() -> {
-                    DayTracking empty = new DayTracking(userId, date);
-                    trackingRepo.save(empty);
-                    return entityToDto(empty);
-                });
+        return snapshotCache.get(userId, date).orElseGet(() -> {
+            DayTrackingDto dto = entityToDto(findOrCreateDay(userId, date));
+            snapshotCache.offer(userId, dto);
+            return dto;
+        });
+    }
+
+    /**
+     * ✅ ETag courant du jour pour If-None-Match : snapshot en cache, sinon (id, version) seulement
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<String> currentETag(UUID userId, LocalDate date) {
+        Optional<DayTrackingDto> cached = snapshotCache.get(userId, date);
+        if (cached.isPresent()) {
+            return cached.map(DayTrackingVersion::etag);
+        }
+        return trackingRepo.findVersionByUserIdAndDate(userId, date).map(DayTrackingVersion::etag);
+    }
+
+    /**
+     * ✅ Plage de jours (totaux uniquement) en une requête, sans créer de lignes vides
+     */
+    @Transactional(readOnly = true)
+    public List<DayTrackingDto> getRange(UUID userId, LocalDate from, LocalDate to) {
+        return trackingRepo.findByUserIdAndDateBetweenOrderByDateAsc(userId, from, to).stream()
+                .map(DayTrackingDto::fromEntity)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -40,17 +87,21 @@ public class DayTrackingService {
         UUID userId = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
         LocalDate date = LocalDate.parse(dto.getDate());
 
-        DayTracking entity = trackingRepo.findByUserIdAndDate(userId, date)
-                .orElseGet(() -> new DayTracking(userId, date));  // ✅ CORRIGÉ
+        DayTracking entity = findOrCreateDay(userId, date);  // ✅ CORRIGÉ
+        DayTotals before = DayTotals.of(entity);
 
         entity.setCaloriesIn(dto.getCaloriesIn());
         entity.setCaloriesTarget(dto.getCaloriesTarget());
         entity.setCaloriesOut(dto.getCaloriesOut() != null ? dto.getCaloriesOut() : 0);
         entity.setTotalWorkoutMinutes(dto.getTotalWorkoutMinutes() != null ? dto.getTotalWorkoutMinutes() : 0);
         entity.setTotalSets(dto.getTotalSets() != null ? dto.getTotalSets() : 0);
+        if (dto.getProteinIn() != null) entity.setProteinIn(dto.getProteinIn());
+        if (dto.getCarbsIn() != null) entity.setCarbsIn(dto.getCarbsIn());
+        if (dto.getFatIn() != null) entity.setFatIn(dto.getFatIn());
 
         DayTracking saved = trackingRepo.save(entity);
-        return entityToDto(saved);
+        summaryService.applyChange(saved, before);
+        return changed(saved);
     }
 
     /**
@@ -59,34 +110,114 @@ public class DayTrackingService {
     public DayTrackingDto addMeal(UUID userId, LocalDate date, DayMealDto mealDto) {
         System.out.println("📥 Adding meal: " + mealDto.getRecipeName());
 
-        // Récupérer ou créer le DayTracking
-        DayTracking tracking = trackingRepo.findByUserIdAndDate(userId, date)
-                .orElseGet(() -> {
-                    DayTracking newTracking = new DayTracking(userId, date);
-                    return trackingRepo.save(newTracking);
-                });
+        // Récupérer (avec repas/entraînements) ou créer le DayTracking
+        DayTracking tracking = findOrCreateDay(userId, date);
+        DayTotals before = DayTotals.of(tracking);
 
         // Créer le repas ✅ AVEC imageUrl
-        DayMeal meal = new DayMeal();
-        meal.setDayTrackingId(tracking.getId());
-        meal.setRecipeName(mealDto.getRecipeName());
-        meal.setLabel(mealDto.getLabel());
-        meal.setTime(mealDto.getTime());
-        meal.setCalories(mealDto.getCalories());
-        meal.setServings(mealDto.getServings() != null ? mealDto.getServings() : 1);
-        if (mealDto.getProtein() != null) meal.setProtein(mealDto.getProtein());
-        if (mealDto.getCarbs() != null) meal.setCarbs(mealDto.getCarbs());
-        if (mealDto.getFat() != null) meal.setFat(mealDto.getFat());
-        if (mealDto.getImageUrl() != null) meal.setImageUrl(mealDto.getImageUrl());  // ✅ AJOUTÉ
-
-        DayMeal savedMeal = mealRepo.save(meal);
+        DayMeal savedMeal = mealRepo.save(toMeal(tracking, mealDto));
+        tracking.getMeals().add(savedMeal);
         System.out.println("✅ Meal saved: " + savedMeal.getId());
 
-        // Mettre à jour les calories totales
-        updateDayCalories(tracking);
+        // Mettre à jour les totaux (delta du repas)
+        tracking.applyMeal(savedMeal, +1);
+        summaryService.applyChange(tracking, before);
 
         // ✅ RETOURNE DayTrackingDto COMPLET (pour frontend)
-        return entityToDto(tracking);
+        return changed(tracking);
+    }
+
+    /**
+     * ✅ Ajout groupé de repas sur un jour (tout ou rien)
+     */
+    public DayTrackingDto addMeals(UUID userId, LocalDate date, List<DayMealDto> meals) {
+        if (meals == null || meals.isEmpty()) {
+            throw new IllegalArgumentException("Aucun repas");
+        }
+        return changed(addMealsBatch(userId, Map.of(date, meals)).get(0));
+    }
+
+    /**
+     * ✅ Ajout groupé de repas sur plusieurs jours (tout ou rien), totaux seulement en retour
+     */
+    public DayMealBatchResultDto addMeals(UUID userId, List<DatedMealDto> meals) {
+        if (meals == null || meals.isEmpty()) {
+            throw new IllegalArgumentException("Aucun repas");
+        }
+        Map<LocalDate, List<DayMealDto>> byDate = new LinkedHashMap<>();
+        for (int i = 0; i < meals.size(); i++) {
+            DatedMealDto meal = meals.get(i);
+            if (meal == null || meal.getDate() == null) {
+                throw new IllegalArgumentException("Repas #" + i + ": date manquante");
+            }
+            LocalDate date;
+            try {
+                date = LocalDate.parse(meal.getDate());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Repas #" + i + ": date invalide " + meal.getDate());
+            }
+            byDate.computeIfAbsent(date, d -> new ArrayList<>()).add(meal);
+        }
+
+        List<DayTracking> days = addMealsBatch(userId, byDate);
+        days.forEach(DayTracking::touch);
+        trackingRepo.flush();
+        List<DayTrackingDto> totals = days.stream().map(DayTrackingDto::fromEntity).collect(Collectors.toList());
+        totals.forEach(day -> events.publishEvent(new DayTrackingChangedEvent(userId, day, false)));
+        return new DayMealBatchResultDto(meals.size(), days.size(), totals);
+    }
+
+    // 1 requête pour les jours existants, inserts batchés (hibernate.jdbc.batch_size),
+    // totaux et résumés mis à jour une fois par jour
+    private List<DayTracking> addMealsBatch(UUID userId, Map<LocalDate, List<DayMealDto>> mealsByDate) {
+        if (mealsByDate.isEmpty()) {
+            throw new IllegalArgumentException("Aucun repas");
+        }
+        int count = 0;
+        for (List<DayMealDto> meals : mealsByDate.values()) {
+            for (DayMealDto meal : meals) {
+                validateMeal(meal, count++);
+            }
+        }
+        if (count > MAX_BATCH_MEALS) {
+            throw new IllegalArgumentException("Trop de repas (max " + MAX_BATCH_MEALS + ")");
+        }
+
+        Map<LocalDate, DayTracking> trackings = new HashMap<>();
+        trackingRepo.findWithMealsByUserIdAndDateIn(userId, mealsByDate.keySet())
+                .forEach(t -> trackings.put(t.getDate(), t));
+
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate date : mealsByDate.keySet()) {
+            if (!trackings.containsKey(date)) {
+                trackingRepo.insertIfAbsent(UUID.randomUUID(), userId, date);
+                missing.add(date);
+            }
+        }
+        if (!missing.isEmpty()) {
+            trackingRepo.findWithMealsByUserIdAndDateIn(userId, missing)
+                    .forEach(t -> trackings.put(t.getDate(), t));
+        }
+
+        List<DayMeal> newMeals = new ArrayList<>();
+        List<DayTracking> affected = new ArrayList<>();
+        mealsByDate.forEach((date, meals) -> {
+            DayTracking tracking = trackings.get(date);
+            DayTotals before = DayTotals.of(tracking);
+            for (DayMealDto mealDto : meals) {
+                DayMeal meal = toMeal(tracking, mealDto);
+                newMeals.add(meal);
+                tracking.getMeals().add(meal);
+                tracking.applyMeal(meal, +1);
+            }
+            summaryService.applyChange(tracking, before);
+            affected.add(tracking);
+        });
+        mealRepo.saveAll(newMeals);
+
+        log.info("✅ Batch: {} meals on {} days", newMeals.size(), affected.size());
+        affected.sort(Comparator.comparing(DayTracking::getDate));
+        return affected;
     }
 
     /**
@@ -95,18 +226,14 @@ public class DayTrackingService {
     public DayTrackingDto updateMeal(UUID userId, LocalDate date, String mealId, DayMealDto mealDto) {
         System.out.println("🔄 Service: Updating meal " + mealId + " → " + mealDto.getRecipeName());
 
-        // 1. Récupérer DayTracking
-        DayTracking tracking = trackingRepo.findByUserIdAndDate(userId, date)
+        // 1. Récupérer DayTracking (avec ses repas)
+        DayTracking tracking = trackingRepo.findWithItemsByUserIdAndDate(userId, date)
                 .orElseThrow(() -> new RuntimeException("Day tracking not found"));
+        DayTotals before = DayTotals.of(tracking);
 
-        // 2. Trouver le repas à updater
-        DayMeal meal = mealRepo.findById(UUID.fromString(mealId))
-                .orElseThrow(() -> new RuntimeException("Meal not found: " + mealId));
-
-        // 3. Vérifier que le repas appartient au bon jour
-        if (!meal.getDayTrackingId().equals(tracking.getId())) {
-            throw new RuntimeException("Meal belongs to different day");
-        }
+        // 2-3. Trouver le repas à updater parmi ceux du jour
+        DayMeal meal = findMealOfDay(tracking, mealId);
+        tracking.applyMeal(meal, -1);  // retire l'ancienne contribution
 
         // 4. UPDATE tous les champs
         meal.setRecipeName(mealDto.getRecipeName());
@@ -119,78 +246,36 @@ public class DayTrackingService {
         if (mealDto.getFat() != null) meal.setFat(mealDto.getFat());
         if (mealDto.getImageUrl() != null) meal.setImageUrl(mealDto.getImageUrl());
 
-        // 5. Sauvegarder
-        mealRepo.save(meal);
+        // 5. Sauvegarder (entité gérée : UPDATE au commit)
         System.out.println("✅ Meal updated: " + meal.getId());
 
-        // 6. Recalculer calories totales
-        updateDayCalories(tracking);
+        // 6. Ajoute la nouvelle contribution aux totaux
+        tracking.applyMeal(meal, +1);
+        summaryService.applyChange(tracking, before);
 
         // 7. Retourner DayTrackingDto complet
-        return entityToDto(tracking);
+        return changed(tracking);
     }
 
     /**
      * ✅ CORRIGÉ : Retourne DayTrackingDto COMPLET
      */
     public DayTrackingDto addWorkout(UUID userId, LocalDate date, DayWorkoutDto workoutDto) {
-        // Récupérer ou créer le DayTracking
-        DayTracking tracking = trackingRepo.findByUserIdAndDate(userId, date)
-                .orElseGet(() -> {
-                    DayTracking newTracking = new DayTracking(userId, date);
-                    return trackingRepo.save(newTracking);
-                });
+        // Récupérer (avec repas/entraînements) ou créer le DayTracking
+        DayTracking tracking = findOrCreateDay(userId, date);
+        DayTotals before = DayTotals.of(tracking);
 
         // Créer l'entraînement
-        DayWorkout workout = new DayWorkout();
-        workout.setDayTrackingId(tracking.getId());
-        workout.setName(workoutDto.getName());
-        workout.setTime(workoutDto.getTime());
-        workout.setDurationMin(workoutDto.getDurationMin());
-        workout.setCaloriesBurned(workoutDto.getCaloriesBurned());
-        workout.setTotalSets(workoutDto.getTotalSets() != null ? workoutDto.getTotalSets() : 0);
-
-        DayWorkout savedWorkout = workoutRepo.save(workout);
+        DayWorkout savedWorkout = workoutRepo.save(toWorkout(tracking, workoutDto));
+        tracking.getWorkouts().add(savedWorkout);
         System.out.println("✅ Workout saved: " + savedWorkout.getId());  // ✅ AJOUTE ÇA
 
-        // Mettre à jour les stats d'entraînement
-        updateDayWorkoutStats(tracking);
+        // Mettre à jour les stats d'entraînement (delta)
+        tracking.applyWorkout(savedWorkout, +1);
+        summaryService.applyChange(tracking, before);
 
         // ✅ RETOURNE DayTrackingDto COMPLET (pour frontend)
-        return entityToDto(tracking);
-    }
-
-    /**
-     * Met à jour les calories totales du jour ✅ PROTÉGÉ null
-     */
-    private void updateDayCalories(DayTracking tracking) {
-        List<DayMeal> meals = mealRepo.findByDayTrackingId(tracking.getId());
-        int totalCalories = meals.stream()
-                .mapToInt(m -> m.getCalories() != null ? m.getCalories() : 0)  // ✅ PROTÉGÉ
-                .sum();
-        tracking.setCaloriesIn(totalCalories);
-        trackingRepo.save(tracking);
-    }
-
-    /**
-     * Met à jour les stats d'entraînement du jour ✅ PROTÉGÉ null
-     */
-    private void updateDayWorkoutStats(DayTracking tracking) {
-        List<DayWorkout> workouts = workoutRepo.findByDayTrackingId(tracking.getId());
-        int totalMinutes = workouts.stream()
-                .mapToInt(w -> w.getDurationMin() != null ? w.getDurationMin() : 0)
-                .sum();
-        int totalSets = workouts.stream()
-                .mapToInt(w -> w.getTotalSets() != null ? w.getTotalSets() : 0)
-                .sum();
-        int totalCalories = workouts.stream()
-                .mapToInt(w -> w.getCaloriesBurned() != null ? w.getCaloriesBurned() : 0)
-                .sum();
-
-        tracking.setTotalWorkoutMinutes(totalMinutes);
-        tracking.setTotalSets(totalSets);
-        tracking.setCaloriesOut(totalCalories);
-        trackingRepo.save(tracking);
+        return changed(tracking);
     }
 
     /**
@@ -205,16 +290,19 @@ public class DayTrackingService {
         dto.caloriesOut = entity.getCaloriesOut();
         dto.totalWorkoutMinutes = entity.getTotalWorkoutMinutes();
         dto.totalSets = entity.getTotalSets();
-
-        // Charger les meals
-        List<DayMeal> meals = mealRepo.findByDayTrackingId(entity.getId());
-        dto.meals = meals.stream()
+        dto.proteinIn = entity.getProteinIn();
+        dto.carbsIn = entity.getCarbsIn();
+        dto.fatIn = entity.getFatIn();
+        dto.version = entity.getVersion();
+
+        // Meals / workouts déjà chargés avec le jour (aucune requête ici)
+        dto.meals = entity.getMeals().stream()
+                .sorted(Comparator.comparing(DayMeal::getTime))
                 .map(DayMealDto::fromEntity)
                 .collect(Collectors.toList());
 
-        // Charger les workouts
-        List<DayWorkout> workouts = workoutRepo.findByDayTrackingId(entity.getId());
-        dto.workouts = workouts.stream()
+        dto.workouts = entity.getWorkouts().stream()
+                .sorted(Comparator.comparing(DayWorkout::getTime))
                 .map(DayWorkoutDto::fromEntity)
                 .collect(Collectors.toList());
 
@@ -226,25 +314,129 @@ public class DayTrackingService {
 public DayTrackingDto deleteMeal(UUID userId, LocalDate date, String mealId) {
     System.out.println("🗑️ Service: Deleting meal " + mealId);
     
-    // 1. Récupérer DayTracking
-    DayTracking tracking = trackingRepo.findByUserIdAndDate(userId, date)
+    // 1. Récupérer DayTracking (avec ses repas)
+    DayTracking tracking = trackingRepo.findWithItemsByUserIdAndDate(userId, date)
             .orElseThrow(() -> new RuntimeException("Day tracking not found"));
+    DayTotals before = DayTotals.of(tracking);
 
     // 2. Supprimer repas
-    DayMeal meal = mealRepo.findById(UUID.fromString(mealId))
-            .orElseThrow(() -> new RuntimeException("Meal not found: " + mealId));
-    
-    if (!meal.getDayTrackingId().equals(tracking.getId())) {
-        throw new RuntimeException("Meal belongs to different day");
-    }
+    DayMeal meal = findMealOfDay(tracking, mealId);
 
+    tracking.getMeals().remove(meal);
     mealRepo.delete(meal);
     System.out.println("✅ Meal deleted: " + mealId);
 
-    // 3. Recalculer calories
-    updateDayCalories(tracking);
+    // 3. Retirer sa contribution des totaux
+    tracking.applyMeal(meal, -1);
+    summaryService.applyChange(tracking, before);
 
-    return entityToDto(tracking);
+    return changed(tracking);
 }
 
+    /**
+     * ✅ Vidage du tampon write-behind (WorkoutWriteBehindBuffer) : N séances d'un jour, par id d'entrée du journal,
+     * inserts batchés, totaux et résumés appliqués une seule fois.
+     * Entrées déjà en base (lot rejoué après un crash) ignorées, dans la même transaction que les inserts
+     */
+    public DayTrackingDto addWorkouts(UUID userId, LocalDate date, Map<UUID, DayWorkoutDto> workoutsByJournalId) {
+        DayTracking tracking = findOrCreateDay(userId, date);
+        DayTotals before = DayTotals.of(tracking);
+
+        Set<UUID> applied = workoutRepo.findJournalIdsIn(workoutsByJournalId.keySet());
+        List<DayWorkout> workouts = new ArrayList<>();
+        workoutsByJournalId.forEach((journalId, workoutDto) -> {
+            if (applied.contains(journalId)) {
+                return;
+            }
+            DayWorkout workout = toWorkout(tracking, workoutDto);
+            workout.setJournalId(journalId);
+            workouts.add(workout);
+            tracking.getWorkouts().add(workout);
+            tracking.applyWorkout(workout, +1);
+        });
+        if (workouts.isEmpty()) {
+            return entityToDto(tracking);
+        }
+        workoutRepo.saveAll(workouts);
+        summaryService.applyChange(tracking, before);
+
+        return changed(tracking);
+    }
+
+    // ✅ DTO renvoyé au client + diffusé après commit (flux SSE, cache des snapshots).
+    // flush() ici pour que le DTO porte la version écrite en base (ordre des snapshots, ETag)
+    private DayTrackingDto changed(DayTracking tracking) {
+        tracking.touch();
+        trackingRepo.flush();
+        DayTrackingDto dto = entityToDto(tracking);
+        events.publishEvent(new DayTrackingChangedEvent(tracking.getUserId(), dto, true));
+        return dto;
+    }
+
+    /**
+     * ✅ Jour existant (1 requête) ou créé par upsert ON CONFLICT DO NOTHING puis relu :
+     * deux requêtes parallèles sur un nouveau jour retombent sur la même ligne (plus de doublons)
+     */
+    private DayTracking findOrCreateDay(UUID userId, LocalDate date) {
+        return trackingRepo.findWithItemsByUserIdAndDate(userId, date)
+                .orElseGet(() -> {
+                    trackingRepo.insertIfAbsent(UUID.randomUUID(), userId, date);
+                    return trackingRepo.findWithItemsByUserIdAndDate(userId, date)
+                            .orElseThrow(() -> new IllegalStateException("Day tracking not created: " + date));
+                });
+    }
+
+    private DayMeal toMeal(DayTracking tracking, DayMealDto mealDto) {
+        DayMeal meal = new DayMeal();
+        meal.setDayTrackingId(tracking.getId());
+        meal.setRecipeName(mealDto.getRecipeName());
+        meal.setLabel(mealDto.getLabel());
+        meal.setTime(mealDto.getTime());
+        meal.setCalories(mealDto.getCalories());
+        meal.setServings(mealDto.getServings() != null ? mealDto.getServings() : 1);
+        if (mealDto.getProtein() != null) meal.setProtein(mealDto.getProtein());
+        if (mealDto.getCarbs() != null) meal.setCarbs(mealDto.getCarbs());
+        if (mealDto.getFat() != null) meal.setFat(mealDto.getFat());
+        if (mealDto.getImageUrl() != null) meal.setImageUrl(mealDto.getImageUrl());  // ✅ AJOUTÉ
+        return meal;
+    }
+
+    private DayWorkout toWorkout(DayTracking tracking, DayWorkoutDto workoutDto) {
+        DayWorkout workout = new DayWorkout();
+        workout.setDayTrackingId(tracking.getId());
+        workout.setName(workoutDto.getName());
+        workout.setTime(workoutDto.getTime());
+        workout.setDurationMin(workoutDto.getDurationMin());
+        workout.setCaloriesBurned(workoutDto.getCaloriesBurned());
+        workout.setTotalSets(workoutDto.getTotalSets() != null ? workoutDto.getTotalSets() : 0);
+        return workout;
+    }
+
+    // mêmes contraintes que les colonnes NOT NULL de day_meal
+    private static void validateMeal(DayMealDto meal, int index) {
+        String prefix = "Repas #" + index + ": ";
+        if (meal == null) throw new IllegalArgumentException(prefix + "vide");
+        if (isBlank(meal.getRecipeName())) throw new IllegalArgumentException(prefix + "recipeName manquant");
+        if (isBlank(meal.getLabel())) throw new IllegalArgumentException(prefix + "label manquant");
+        if (meal.getTime() == null || !meal.getTime().matches("\\d{2}:\\d{2}")) {
+            throw new IllegalArgumentException(prefix + "time attendu au format HH:mm");
+        }
+        if (meal.getCalories() == null || meal.getCalories() < 0) {
+            throw new IllegalArgumentException(prefix + "calories manquantes ou négatives");
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    // repas du jour déjà chargé (un repas d'un autre jour n'y est pas)
+    private DayMeal findMealOfDay(DayTracking tracking, String mealId) {
+        UUID id = UUID.fromString(mealId);
+        return tracking.getMeals().stream()
+                .filter(m -> id.equals(m.getId()))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Meal not found for this day: " + mealId));
+    }
+
 }
@@ -0,0 +1,98 @@
+package com.recipe_service.demo.tracking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Snapshots DayTrackingDto par (utilisateur, jour) devant DayTrackingService.getOrCreateTracking.
+ * Cache Caffeine borné déclaré dans CacheConfig (taille = utilisateurs actifs x jours consultés),
+ * taux de hit dans /actuator/metrics/cache.gets?tag=cache:dayTrackingSnapshots.
+ *
+ * Mis à jour après commit par chaque écriture (DayTrackingChangedEvent). La dernière version commitée
+ * de chaque jour est retenue à part (plancher) : une lecture concurrente commencée avant le commit
+ * ne peut remettre en cache ni un snapshot plus ancien, ni après un ajout groupé (totaux seuls, évincé).
+ */
+@Component
+public class DayTrackingSnapshotCache {
+
+    public static final String CACHE = "dayTrackingSnapshots";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // (utilisateur, jour) -> dernière version commitée ; même durée de vie que les snapshots
+    private final Cache<String, Long> committedVersions;
+
+    public DayTrackingSnapshotCache(@Value("${cache.day-tracking.max-size:20000}") long maxSize,
+                                    @Value("${cache.day-tracking.ttl:30m}") Duration ttl) {
+        this.committedVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Optional<DayTrackingDto> get(UUID userId, LocalDate date) {
+        org.springframework.cache.Cache cache = cacheManager.getCache(CACHE);
+        return Optional.ofNullable(cache != null ? cache.get(key(userId, date), DayTrackingDto.class) : null);
+    }
+
+    // garde le snapshot de version la plus haute, jamais sous la dernière version commitée
+    public void offer(UUID userId, DayTrackingDto day) {
+        Cache<Object, Object> cache = nativeCache();
+        if (cache == null || day.getVersion() == null) {
+            return;
+        }
+        String key = key(userId, LocalDate.parse(day.getDate()));
+        Long floor = committedVersions.getIfPresent(key);
+        if (floor != null && day.getVersion() < floor) {
+            return;
+        }
+        cache.asMap().merge(key, day,
+                (current, candidate) -> version(candidate) >= version(current) ? candidate : current);
+    }
+
+    public void evict(UUID userId, LocalDate date) {
+        Cache<Object, Object> cache = nativeCache();
+        if (cache != null) {
+            cache.invalidate(key(userId, date));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDayTrackingChanged(DayTrackingChangedEvent event) {
+        if (event.day().getVersion() != null) {
+            committedVersions.asMap().merge(key(event.userId(), LocalDate.parse(event.day().getDate())),
+                    event.day().getVersion(), Math::max);
+        }
+        if (event.withItems()) {
+            offer(event.userId(), event.day());
+        } else {
+            evict(event.userId(), LocalDate.parse(event.day().getDate()));
+        }
+    }
+
+    private Cache<Object, Object> nativeCache() {
+        return cacheManager.getCache(CACHE) instanceof CaffeineCache caffeine ? caffeine.getNativeCache() : null;
+    }
+
+    private static String key(UUID userId, LocalDate date) {
+        return userId + ":" + date;
+    }
+
+    private static long version(Object snapshot) {
+        Long version = ((DayTrackingDto) snapshot).getVersion();
+        return version != null ? version : -1;
+    }
+}
@@ -0,0 +1,120 @@
+package com.recipe_service.demo.tracking;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Totaux pré-agrégés par utilisateur et par semaine / mois.
+ * Mis à jour par delta dans la transaction de chaque écriture (voir DayTrackingSummaryRepository.applyDelta).
+ */
+@Entity
+@Table(name = "day_tracking_summary")
+@IdClass(DayTrackingSummary.Key.class)
+public class DayTrackingSummary {
+
+    public enum Period {
+        WEEK, MONTH;
+
+        // premier jour de la période (semaine ISO : lundi)
+        public LocalDate start(LocalDate date) {
+            return this == WEEK
+                    ? date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    : date.withDayOfMonth(1);
+        }
+
+        public LocalDate end(LocalDate start) {
+            return this == WEEK ? start.plusDays(6) : start.plusMonths(1).minusDays(1);
+        }
+    }
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Period period;
+
+    @Id
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "days_logged", nullable = false)
+    private Integer daysLogged = 0;
+
+    // jours avec calories brûlées (V15) : dénominateur de la moyenne des calories out
+    @Column(name = "days_active", nullable = false)
+    private Integer daysActive = 0;
+
+    @Column(name = "calories_in", nullable = false)
+    private Long caloriesIn = 0L;
+
+    @Column(name = "protein_in", nullable = false)
+    private Long proteinIn = 0L;
+
+    @Column(name = "carbs_in", nullable = false)
+    private Long carbsIn = 0L;
+
+    @Column(name = "fat_in", nullable = false)
+    private Long fatIn = 0L;
+
+    @Column(name = "calories_out", nullable = false)
+    private Long caloriesOut = 0L;
+
+    @Column(name = "workout_minutes", nullable = false)
+    private Long workoutMinutes = 0L;
+
+    @Column(name = "total_sets", nullable = false)
+    private Long totalSets = 0L;
+
+    public DayTrackingSummary() {}
+
+    // Getters
+    public UUID getUserId() { return userId; }
+    public Period getPeriod() { return period; }
+    public LocalDate getPeriodStart() { return periodStart; }
+    public Integer getDaysLogged() { return daysLogged; }
+    public Integer getDaysActive() { return daysActive; }
+    public Long getCaloriesIn() { return caloriesIn; }
+    public Long getProteinIn() { return proteinIn; }
+    public Long getCarbsIn() { return carbsIn; }
+    public Long getFatIn() { return fatIn; }
+    public Long getCaloriesOut() { return caloriesOut; }
+    public Long getWorkoutMinutes() { return workoutMinutes; }
+    public Long getTotalSets() { return totalSets; }
+
+    public static class Key implements Serializable {
+        private UUID userId;
+        private Period period;
+        private LocalDate periodStart;
+
+        public Key() {}
+
+        public Key(UUID userId, Period period, LocalDate periodStart) {
+            this.userId = userId;
+            this.period = period;
+            this.periodStart = periodStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(userId, key.userId)
+                    && period == key.period
+                    && Objects.equals(periodStart, key.periodStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, period, periodStart);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.recipe_service.demo.tracking;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DayTrackingSummaryRepository extends JpaRepository<DayTrackingSummary, DayTrackingSummary.Key> {
+
+    List<DayTrackingSummary> findByUserIdAndPeriodAndPeriodStartBetweenOrderByPeriodStartAsc(
+            UUID userId, DayTrackingSummary.Period period, LocalDate from, LocalDate to);
+
+    // ✅ Upsert atomique : crée la ligne de la période ou lui ajoute le delta (pas de lecture préalable)
+    @Modifying
+    @Query(value = """
+            INSERT INTO day_tracking_summary (user_id, period, period_start, days_logged, days_active,
+                calories_in, protein_in, carbs_in, fat_in, calories_out, workout_minutes, total_sets)
+            VALUES (:userId, :period, :periodStart, :daysLogged, :daysActive,
+                :caloriesIn, :proteinIn, :carbsIn, :fatIn, :caloriesOut, :workoutMinutes, :totalSets)
+            ON CONFLICT (user_id, period, period_start) DO UPDATE SET
+                days_logged     = day_tracking_summary.days_logged     + EXCLUDED.days_logged,
+                days_active     = day_tracking_summary.days_active     + EXCLUDED.days_active,
+                calories_in     = day_tracking_summary.calories_in     + EXCLUDED.calories_in,
+                protein_in      = day_tracking_summary.protein_in      + EXCLUDED.protein_in,
+                carbs_in        = day_tracking_summary.carbs_in        + EXCLUDED.carbs_in,
+                fat_in          = day_tracking_summary.fat_in          + EXCLUDED.fat_in,
+                calories_out    = day_tracking_summary.calories_out    + EXCLUDED.calories_out,
+                workout_minutes = day_tracking_summary.workout_minutes + EXCLUDED.workout_minutes,
+                total_sets      = day_tracking_summary.total_sets      + EXCLUDED.total_sets
+            """, nativeQuery = true)
+    void applyDelta(@Param("userId") UUID userId,
+                    @Param("period") String period,
+                    @Param("periodStart") LocalDate periodStart,
+                    @Param("daysLogged") int daysLogged,
+                    @Param("daysActive") int daysActive,
+                    @Param("caloriesIn") int caloriesIn,
+                    @Param("proteinIn") int proteinIn,
+                    @Param("carbsIn") int carbsIn,
+                    @Param("fatIn") int fatIn,
+                    @Param("caloriesOut") int caloriesOut,
+                    @Param("workoutMinutes") int workoutMinutes,
+                    @Param("totalSets") int totalSets);
+}
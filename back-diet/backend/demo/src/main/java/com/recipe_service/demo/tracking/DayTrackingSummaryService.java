@@ -0,0 +1,54 @@
+package com.recipe_service.demo.tracking;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Résumés hebdo / mensuels maintenus par delta : chaque écriture sur un jour
+ * ajoute (après - avant) aux lignes WEEK et MONTH de ce jour, dans la même transaction.
+ */
+@Service
+@Transactional
+public class DayTrackingSummaryService {
+
+    @Autowired
+    private DayTrackingSummaryRepository summaryRepo;
+
+    public void applyChange(DayTracking tracking, DayTotals before) {
+        DayTotals delta = DayTotals.of(tracking).minus(before);
+        if (delta.isZero()) {
+            return;
+        }
+        for (DayTrackingSummary.Period period : DayTrackingSummary.Period.values()) {
+            summaryRepo.applyDelta(
+                    tracking.getUserId(),
+                    period.name(),
+                    period.start(tracking.getDate()),
+                    delta.daysLogged(),
+                    delta.daysActive(),
+                    delta.caloriesIn(),
+                    delta.proteinIn(),
+                    delta.carbsIn(),
+                    delta.fatIn(),
+                    delta.caloriesOut(),
+                    delta.workoutMinutes(),
+                    delta.totalSets()
+            );
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<DayTrackingRollupDto> getRollups(UUID userId, DayTrackingSummary.Period period, LocalDate from, LocalDate to) {
+        return summaryRepo.findByUserIdAndPeriodAndPeriodStartBetweenOrderByPeriodStartAsc(
+                        userId, period, period.start(from), to)
+                .stream()
+                .map(DayTrackingRollupDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+}
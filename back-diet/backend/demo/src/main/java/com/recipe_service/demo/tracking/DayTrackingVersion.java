@@ -0,0 +1,16 @@
+package com.recipe_service.demo.tracking;
+
+import java.util.UUID;
+
+// (id, version) d'un jour, sans repas ni entraînements : suffit pour l'ETag (If-None-Match)
+public record DayTrackingVersion(UUID id, Long version) {
+
+    // ETag fort : la version est incrémentée à chaque écriture (DayTracking.touch)
+    public String etag() {
+        return id + "-" + version;
+    }
+
+    public static String etag(DayTrackingDto day) {
+        return new DayTrackingVersion(day.getId(), day.getVersion()).etag();
+    }
+}
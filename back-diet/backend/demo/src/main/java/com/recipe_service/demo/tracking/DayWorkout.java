@@ -30,6 +30,10 @@ public class DayWorkout {
     @Column(name = "total_sets", nullable = false)
     private Integer totalSets = 0;
 
+    // entrée du journal write-behind d'où vient la séance (null si ajoutée directement) -> voir V14
+    @Column(name = "journal_id", unique = true)
+    private UUID journalId;
+
     // Constructors
     public DayWorkout() {}
 
@@ -61,4 +65,7 @@ public class DayWorkout {
 
     public Integer getTotalSets() { return totalSets; }
     public void setTotalSets(Integer totalSets) { this.totalSets = totalSets; }
+
+    public UUID getJournalId() { return journalId; }
+    public void setJournalId(UUID journalId) { this.journalId = journalId; }
 }
@@ -1,12 +1,20 @@
 package com.recipe_service.demo.tracking;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
 public interface DayWorkoutRepository extends JpaRepository<DayWorkout, UUID> {
     List<DayWorkout> findByDayTrackingId(UUID dayTrackingId);
+
+    // ✅ Entrées du journal write-behind déjà enregistrées (rejeu après crash)
+    @Query("select w.journalId from DayWorkout w where w.journalId in :journalIds")
+    Set<UUID> findJournalIdsIn(@Param("journalIds") Collection<UUID> journalIds);
 }
@@ -0,0 +1,362 @@
+package com.recipe_service.demo.tracking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mode write-behind (opt-in) pour les séances loguées série par série pendant l'entraînement.
+ *
+ * Chaque séance est d'abord écrite dans un journal local append-only (fsync), puis gardée en mémoire
+ * par (utilisateur, jour) : la réponse est immédiate, avec des totaux provisoires.
+ * Le tampon est vidé toutes les flush-interval ou dès max-entries séances pour un jour,
+ * une transaction par jour (DayTrackingService.addWorkouts). Au démarrage, les séances du journal
+ * jamais confirmées en base sont rejouées ; le journal est vidé dès que plus rien n'est en attente.
+ *
+ * Chaque entrée du journal porte un id enregistré avec la séance (day_workout.journal_id, unique) :
+ * un crash entre le commit et l'écriture de la confirmation fait rejouer le lot, mais les séances
+ * déjà en base sont ignorées dans la transaction du rejeu (aucun doublon).
+ */
+@Slf4j
+@Component
+public class WorkoutWriteBehindBuffer {
+
+    private record Key(UUID userId, LocalDate date) { }
+
+    private record Pending(long seq, UUID journalId, DayWorkoutDto workout) { }
+
+    // une ligne du journal : soit une séance reçue (seq, id...), soit les seq enregistrés en base (flushed).
+    // seq repart de 1 après compaction ; id reste unique et sert de clé d'idempotence en base
+    record JournalLine(Long seq, UUID id, UUID userId, String date, DayWorkoutDto workout, List<Long> flushed) { }
+
+    @Autowired
+    private DayTrackingService service;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${tracking.workouts.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${tracking.workouts.write-behind.flush-interval:500ms}")
+    private Duration flushInterval;
+
+    @Value("${tracking.workouts.write-behind.max-entries:50}")
+    private int maxEntries;
+
+    @Value("${tracking.workouts.write-behind.journal:./data/workout-journal.jsonl}")
+    private String journalFile;
+
+    // protégés par "this" (avec le journal)
+    private final Map<Key, List<Pending>> pending = new LinkedHashMap<>();
+    private long nextSeq = 1;
+    private FileChannel journal;
+
+    // dernier état connu en base par jour, base des totaux provisoires
+    private final Map<Key, DayTrackingDto> snapshots = new ConcurrentHashMap<>();
+
+    // un seul vidage à la fois
+    private final Object flushLock = new Object();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "workout-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public boolean isEnabled() {
+        return enabled && journal != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!open()) {
+            return;
+        }
+        long intervalMs = Math.max(flushInterval.toMillis(), 10);
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, 0, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("✓ Write-behind séances {} (flush {} ms / {} séances)",
+                enabled ? "actif" : "inactif, rejeu seulement", intervalMs, maxEntries);
+    }
+
+    // rejoue le journal puis l'ouvre en ajout ; false si rien à faire (inactif sans journal) ou journal illisible
+    boolean open() {
+        Path path = Path.of(journalFile);
+        // mode désactivé : on rejoue quand même un journal laissé par une exécution précédente
+        if (!enabled && !Files.exists(path)) {
+            return false;
+        }
+        try {
+            int replayed = replay(path);
+            if (!enabled && replayed == 0) {
+                return false;
+            }
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            journal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (replayed > 0) {
+                log.info("↻ Write-behind séances : {} séances rejouées depuis {}", replayed, path);
+            }
+            return true;
+        } catch (IOException e) {
+            log.error("❌ Journal write-behind illisible ({}), mode désactivé", path, e);
+            return false;
+        }
+    }
+
+    /**
+     * Met la séance en attente et renvoie le jour avec les totaux provisoires (base connue + séances en attente).
+     */
+    public DayTrackingDto enqueue(UUID userId, LocalDate date, DayWorkoutDto workout) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Write-behind séances inactif");
+        }
+        validate(workout);
+        Key key = new Key(userId, date);
+        DayTrackingDto base = snapshots.get(key);
+        if (base == null) {
+            // 1 lecture par jour et par vidage, au lieu d'un insert + rechargement par série
+            base = service.getOrCreateTracking(userId, date);
+            snapshots.putIfAbsent(key, base);
+        }
+
+        List<DayWorkoutDto> waiting;
+        boolean full;
+        synchronized (this) {
+            long seq = nextSeq++;
+            UUID journalId = UUID.randomUUID();
+            append(new JournalLine(seq, journalId, userId, date.toString(), workout, null));
+            List<Pending> items = pending.computeIfAbsent(key, k -> new ArrayList<>());
+            items.add(new Pending(seq, journalId, workout));
+            waiting = items.stream().map(Pending::workout).toList();
+            full = items.size() >= maxEntries;
+        }
+        if (full) {
+            scheduler.execute(this::flushQuietly);
+        }
+        return provisional(base, waiting);
+    }
+
+    /**
+     * Écrit en base tout ce qui est en attente (une transaction par jour).
+     * Un jour en échec reste en tête du tampon pour le prochain passage.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<Key, List<Pending>> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new LinkedHashMap<>(pending);
+                pending.clear();
+            }
+
+            batch.forEach((key, items) -> {
+                DayTrackingDto saved;
+                try {
+                    Map<UUID, DayWorkoutDto> workouts = new LinkedHashMap<>();
+                    items.forEach(item -> workouts.put(item.journalId(), item.workout()));
+                    saved = service.addWorkouts(key.userId(), key.date(), workouts);
+                } catch (Exception e) {
+                    log.warn("⚠️ Write-behind : {} séances du {} non enregistrées, nouvel essai au prochain passage: {}",
+                            items.size(), key.date(), e.getMessage());
+                    synchronized (this) {
+                        pending.merge(key, items, (newer, older) -> {
+                            List<Pending> all = new ArrayList<>(older);
+                            all.addAll(newer);
+                            return all;
+                        });
+                    }
+                    return;
+                }
+
+                synchronized (this) {
+                    if (pending.containsKey(key)) {
+                        snapshots.put(key, saved);
+                    } else {
+                        snapshots.remove(key);
+                    }
+                    try {
+                        append(new JournalLine(null, null, null, null, null, items.stream().map(Pending::seq).toList()));
+                    } catch (UncheckedIOException e) {
+                        // déjà en base : pas de remise en attente (au rejeu, les séances déjà enregistrées sont ignorées)
+                        log.error("❌ Confirmation write-behind non journalisée pour le {}", key.date(), e);
+                    }
+                }
+            });
+
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    compact();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        if (journal == null) {
+            return;
+        }
+        // ce qui ne passe pas maintenant reste dans le journal et sera rejoué au démarrage
+        flushQuietly();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("⚠️ Fermeture du journal write-behind: {}", e.getMessage());
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("❌ Vidage write-behind en échec", e);
+        }
+    }
+
+    // séances du journal sans ligne "flushed" correspondante -> remises en attente
+    private int replay(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        byte[] content = Files.readAllBytes(path);
+        int end = content.length;
+        while (end > 0 && content[end - 1] != '\n') {
+            end--;
+        }
+        if (end < content.length) {
+            // dernière ligne tronquée par un crash (jamais confirmée au client) : coupée avant de rouvrir
+            // le journal en ajout, sinon la prochaine séance serait collée derrière et illisible au rejeu
+            log.warn("⚠️ Fin de journal write-behind tronquée ignorée ({} octets)", content.length - end);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(end);
+                channel.force(true);
+            }
+        }
+
+        Map<Long, JournalLine> received = new LinkedHashMap<>();
+        Set<Long> flushed = new HashSet<>();
+        for (String raw : new String(content, 0, end, StandardCharsets.UTF_8).split("\n")) {
+            if (raw.isBlank()) continue;
+            try {
+                JournalLine line = objectMapper.readValue(raw, JournalLine.class);
+                if (line.flushed() != null) {
+                    flushed.addAll(line.flushed());
+                } else if (line.seq() != null) {
+                    received.put(line.seq(), line);
+                }
+            } catch (IOException e) {
+                // ligne illisible au milieu du journal : on garde les autres
+                log.warn("⚠️ Ligne de journal write-behind ignorée: {}", e.getMessage());
+            }
+        }
+
+        int count = 0;
+        synchronized (this) {
+            for (JournalLine line : received.values()) {
+                nextSeq = Math.max(nextSeq, line.seq() + 1);
+                if (flushed.contains(line.seq())) continue;
+                Key key = new Key(line.userId(), LocalDate.parse(line.date()));
+                // journal écrit avant l'id d'entrée : pas d'idempotence possible pour ces lignes-là
+                UUID journalId = line.id() != null ? line.id() : UUID.randomUUID();
+                pending.computeIfAbsent(key, k -> new ArrayList<>()).add(new Pending(line.seq(), journalId, line.workout()));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void append(JournalLine line) {
+        try {
+            byte[] bytes = (objectMapper.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            journal.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal write-behind non écrit", e);
+        }
+    }
+
+    // plus rien en attente : tout le journal est confirmé, on repart d'un fichier vide
+    private void compact() {
+        try {
+            if (journal.size() > 0) {
+                journal.truncate(0);
+                journal.force(true);
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ Compaction du journal write-behind: {}", e.getMessage());
+        }
+    }
+
+    private static DayTrackingDto provisional(DayTrackingDto base, List<DayWorkoutDto> waiting) {
+        DayTrackingDto dto = new DayTrackingDto();
+        dto.id = base.id;
+        dto.date = base.date;
+        dto.caloriesIn = base.caloriesIn;
+        dto.caloriesTarget = base.caloriesTarget;
+        dto.proteinIn = base.proteinIn;
+        dto.carbsIn = base.carbsIn;
+        dto.fatIn = base.fatIn;
+        dto.meals = base.meals;
+        dto.caloriesOut = orZero(base.caloriesOut);
+        dto.totalWorkoutMinutes = orZero(base.totalWorkoutMinutes);
+        dto.totalSets = orZero(base.totalSets);
+        dto.workouts = new ArrayList<>(base.workouts);
+        for (DayWorkoutDto workout : waiting) {
+            dto.workouts.add(workout);
+            dto.caloriesOut += orZero(workout.getCaloriesBurned());
+            dto.totalWorkoutMinutes += orZero(workout.getDurationMin());
+            dto.totalSets += orZero(workout.getTotalSets());
+        }
+        dto.workouts.sort(Comparator.comparing(DayWorkoutDto::getTime, Comparator.nullsLast(Comparator.naturalOrder())));
+        return dto;
+    }
+
+    // rejeté tout de suite : une séance invalide bloquerait le vidage de tout le jour
+    private static void validate(DayWorkoutDto workout) {
+        if (workout == null || workout.getName() == null || workout.getName().isBlank()) {
+            throw new IllegalArgumentException("name manquant");
+        }
+        if (workout.getTime() == null || !workout.getTime().matches("\\d{2}:\\d{2}")) {
+            throw new IllegalArgumentException("time attendu au format HH:mm");
+        }
+        if (workout.getDurationMin() == null || workout.getDurationMin() < 0) {
+            throw new IllegalArgumentException("durationMin manquant ou négatif");
+        }
+        if (workout.getTotalSets() != null && workout.getTotalSets() < 0) {
+            throw new IllegalArgumentException("totalSets négatif");
+        }
+    }
+
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
+    }
+}
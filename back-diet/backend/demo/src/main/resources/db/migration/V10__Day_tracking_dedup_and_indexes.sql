@@ -0,0 +1,77 @@
+-- V10__Day_tracking_dedup_and_indexes.sql
+-- Contraintes du suivi journalier (tables créées par V7) : doublons fusionnés, orphelins supprimés, index
+
+-- 1) Doublons (user_id, date) créés par le find-then-save concurrent :
+--    on garde un seul jour (le plus petit id : pas d'horodatage de création, les ids sont aléatoires),
+--    on y rattache repas et séances, puis on supprime les autres
+CREATE TEMP TABLE day_tracking_duplicates ON COMMIT DROP AS
+SELECT d.id, k.keep_id, d.user_id
+FROM day_tracking d
+JOIN (
+  SELECT user_id, date, min(id::text)::uuid AS keep_id
+  FROM day_tracking
+  GROUP BY user_id, date
+  HAVING count(*) > 1
+) k ON k.user_id = d.user_id AND k.date = d.date AND d.id <> k.keep_id;
+
+UPDATE day_meal m SET day_tracking_id = dup.keep_id
+FROM day_tracking_duplicates dup WHERE m.day_tracking_id = dup.id;
+
+UPDATE day_workout w SET day_tracking_id = dup.keep_id
+FROM day_tracking_duplicates dup WHERE w.day_tracking_id = dup.id;
+
+DELETE FROM day_tracking t USING day_tracking_duplicates dup WHERE t.id = dup.id;
+
+-- totaux des jours fusionnés recalculés depuis leurs repas / séances (mêmes règles que V8)
+UPDATE day_tracking t
+SET calories_in           = coalesce((SELECT sum(calories)        FROM day_meal m    WHERE m.day_tracking_id = t.id), 0),
+    protein_in            = coalesce((SELECT sum(protein)         FROM day_meal m    WHERE m.day_tracking_id = t.id), 0),
+    carbs_in              = coalesce((SELECT sum(carbs)           FROM day_meal m    WHERE m.day_tracking_id = t.id), 0),
+    fat_in                = coalesce((SELECT sum(fat)             FROM day_meal m    WHERE m.day_tracking_id = t.id), 0),
+    calories_out          = coalesce((SELECT sum(calories_burned) FROM day_workout w WHERE w.day_tracking_id = t.id), 0),
+    total_workout_minutes = coalesce((SELECT sum(duration_min)    FROM day_workout w WHERE w.day_tracking_id = t.id), 0),
+    total_sets            = coalesce((SELECT sum(total_sets)      FROM day_workout w WHERE w.day_tracking_id = t.id), 0),
+    version               = version + 1
+WHERE t.id IN (SELECT keep_id FROM day_tracking_duplicates);
+
+-- résumés des utilisateurs concernés reconstruits (même requête que V9)
+DELETE FROM day_tracking_summary WHERE user_id IN (SELECT user_id FROM day_tracking_duplicates);
+
+INSERT INTO day_tracking_summary (user_id, period, period_start, days_logged,
+    calories_in, protein_in, carbs_in, fat_in, calories_out, workout_minutes, total_sets)
+SELECT t.user_id, p.period, p.period_start,
+       count(*) FILTER (WHERE EXISTS (SELECT 1 FROM day_meal m WHERE m.day_tracking_id = t.id)),
+       sum(t.calories_in), sum(t.protein_in), sum(t.carbs_in), sum(t.fat_in),
+       sum(t.calories_out), sum(t.total_workout_minutes), sum(t.total_sets)
+FROM day_tracking t
+CROSS JOIN LATERAL (VALUES
+    ('WEEK',  date_trunc('week',  t.date)::date),
+    ('MONTH', date_trunc('month', t.date)::date)
+) AS p(period, period_start)
+WHERE t.user_id IN (SELECT user_id FROM day_tracking_duplicates)
+GROUP BY t.user_id, p.period, p.period_start
+ON CONFLICT (user_id, period, period_start) DO NOTHING;
+
+-- 2) Repas / séances orphelins (jour supprimé) : impossibles à afficher, ils bloqueraient les FK
+DELETE FROM day_meal m WHERE NOT EXISTS (SELECT 1 FROM day_tracking t WHERE t.id = m.day_tracking_id);
+DELETE FROM day_workout w WHERE NOT EXISTS (SELECT 1 FROM day_tracking t WHERE t.id = w.day_tracking_id);
+
+-- 3) Un seul jour par utilisateur (findWithItemsByUserIdAndDate, upsert ON CONFLICT (user_id, date)) ;
+--    sert aussi aux lectures par plage de dates d'un utilisateur
+CREATE UNIQUE INDEX IF NOT EXISTS ux_day_tracking_user_date ON day_tracking (user_id, date);
+
+-- 4) Clés étrangères + index : chargement des repas / séances d'un ou plusieurs jours, triés par heure
+DO $$
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_day_meal_day_tracking') THEN
+    ALTER TABLE day_meal ADD CONSTRAINT fk_day_meal_day_tracking
+      FOREIGN KEY (day_tracking_id) REFERENCES day_tracking (id) ON DELETE CASCADE;
+  END IF;
+  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_day_workout_day_tracking') THEN
+    ALTER TABLE day_workout ADD CONSTRAINT fk_day_workout_day_tracking
+      FOREIGN KEY (day_tracking_id) REFERENCES day_tracking (id) ON DELETE CASCADE;
+  END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_day_meal_tracking_time ON day_meal (day_tracking_id, time);
+CREATE INDEX IF NOT EXISTS idx_day_workout_tracking_time ON day_workout (day_tracking_id, time);
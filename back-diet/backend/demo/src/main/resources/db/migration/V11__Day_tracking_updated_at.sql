@@ -0,0 +1,5 @@
+-- V11__Day_tracking_updated_at.sql
+-- Horodatage de la dernière écriture : chaque écriture incrémente ainsi la version du jour
+-- (ordre des snapshots en cache, ETag), même quand les totaux ne changent pas
+
+ALTER TABLE day_tracking ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
@@ -0,0 +1,13 @@
+-- V12__Ai_response_cache.sql
+-- Réponses de l'agent IA (génération / suggestions) réutilisées pour les prompts identiques ou proches
+
+CREATE TABLE IF NOT EXISTS ai_response_cache (
+  id            VARCHAR(80) PRIMARY KEY,
+  endpoint      VARCHAR(20) NOT NULL,
+  prompt        TEXT        NOT NULL,
+  response_json TEXT        NOT NULL,
+  created_at    TIMESTAMP   NOT NULL
+);
+
+-- rechargement au démarrage (les plus récentes) et purge des expirées
+CREATE INDEX IF NOT EXISTS idx_ai_response_cache_created_at ON ai_response_cache (created_at);
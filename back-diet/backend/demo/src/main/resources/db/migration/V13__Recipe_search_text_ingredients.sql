@@ -0,0 +1,49 @@
+-- V13__Recipe_search_text_ingredients.sql
+-- Complète le remplissage de V2 : ajoute les noms d'ingrédients (lus dans ingredients_json)
+-- au search_text des recettes existantes, comme le fait RecipeSearchDocument.buildSearchText
+
+-- noms d'ingrédients séparés par des espaces, NULL si le JSON est invalide ou n'est pas un tableau
+CREATE FUNCTION pg_temp.recipe_ingredient_names(doc TEXT) RETURNS TEXT AS $$
+BEGIN
+  RETURN (SELECT string_agg(trim(ing ->> 'name'), ' ')
+          FROM jsonb_array_elements(doc::jsonb) AS ing
+          WHERE coalesce(trim(ing ->> 'name'), '') <> '');
+EXCEPTION WHEN others THEN
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- @Lob String : colonne oid (large object) si créée par Hibernate 6, text sinon
+CREATE FUNCTION pg_temp.recipe_large_object_text(doc OID) RETURNS TEXT AS $$
+BEGIN
+  RETURN convert_from(lo_get(doc), 'UTF8');
+EXCEPTION WHEN others THEN
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+  column_type TEXT;
+  source      TEXT;
+BEGIN
+  SELECT data_type INTO column_type
+  FROM information_schema.columns
+  WHERE table_schema = current_schema() AND table_name = 'recipes' AND column_name = 'ingredients_json';
+
+  IF column_type IS NULL THEN
+    RETURN;
+  END IF;
+  source := CASE column_type
+              WHEN 'oid' THEN 'pg_temp.recipe_large_object_text(ingredients_json)'
+              ELSE 'ingredients_json::text'
+            END;
+
+  -- même document que buildSearchText : tags, catégorie, zone puis ingrédients
+  EXECUTE format(
+    'UPDATE recipes
+     SET search_text = concat_ws('' '', nullif(trim(replace(tags, '','', '' '')), ''''),
+                                 nullif(trim(category), ''''), nullif(trim(area), ''''),
+                                 pg_temp.recipe_ingredient_names(%s))
+     WHERE ingredients_json IS NOT NULL', source);
+END $$;
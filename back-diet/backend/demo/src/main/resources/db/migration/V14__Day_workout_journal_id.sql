@@ -0,0 +1,8 @@
+-- V14__Day_workout_journal_id.sql
+-- Séances écrites par le tampon write-behind : id de l'entrée du journal local (WorkoutWriteBehindBuffer).
+-- Unique : un lot rejoué après un crash (commit fait, confirmation non journalisée) n'insère rien deux fois.
+-- NULL pour les séances ajoutées directement (plusieurs NULL autorisés par l'index unique)
+
+ALTER TABLE day_workout ADD COLUMN IF NOT EXISTS journal_id UUID;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_day_workout_journal_id ON day_workout (journal_id);
@@ -0,0 +1,20 @@
+-- V15__Day_tracking_summary_active_days.sql
+-- Jours avec une dépense (calories_out > 0) par période : dénominateur de la moyenne des calories brûlées,
+-- days_logged ne comptant que les jours avec au moins un repas
+
+ALTER TABLE day_tracking_summary ADD COLUMN IF NOT EXISTS days_active INTEGER NOT NULL DEFAULT 0;
+
+-- Remplissage depuis l'historique (mêmes périodes que V9 / Period.start)
+UPDATE day_tracking_summary s
+SET days_active = a.days
+FROM (
+  SELECT t.user_id, p.period, p.period_start, count(*) AS days
+  FROM day_tracking t
+  CROSS JOIN LATERAL (VALUES
+      ('WEEK',  date_trunc('week',  t.date)::date),
+      ('MONTH', date_trunc('month', t.date)::date)
+  ) AS p(period, period_start)
+  WHERE t.calories_out > 0
+  GROUP BY t.user_id, p.period, p.period_start
+) a
+WHERE s.user_id = a.user_id AND s.period = a.period AND s.period_start = a.period_start;
@@ -0,0 +1,16 @@
+-- V2__Recipe_full_text_search.sql
+-- Recherche plein texte des recettes (titre, tags, catégorie, zone, ingrédients)
+
+-- Texte indexé, maintenu par l'entité Recipe (@PrePersist / @PreUpdate)
+ALTER TABLE recipes ADD COLUMN IF NOT EXISTS search_text TEXT;
+
+-- Remplit les lignes existantes (les noms d'ingrédients seront ajoutés au prochain save de la recette)
+UPDATE recipes
+SET search_text = concat_ws(' ', replace(tags, ',', ' '), category, area)
+WHERE search_text IS NULL;
+
+-- Index GIN sur la même expression que RecipeSearchFunctionContributor (NE PAS modifier l'un sans l'autre)
+CREATE INDEX IF NOT EXISTS idx_recipes_search ON recipes USING GIN (
+  (setweight(to_tsvector('simple', coalesce(title, '')), 'A')
+   || setweight(to_tsvector('simple', coalesce(search_text, '')), 'B'))
+);
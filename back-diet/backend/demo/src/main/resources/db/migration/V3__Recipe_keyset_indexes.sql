@@ -0,0 +1,5 @@
+-- V3__Recipe_keyset_indexes.sql
+-- Index pour la pagination par curseur (RecipeKeysetCursor) : ORDER BY clé, id
+
+CREATE INDEX IF NOT EXISTS idx_recipes_title_id ON recipes (title, id);
+CREATE INDEX IF NOT EXISTS idx_recipes_calories_id ON recipes (calories, id);
@@ -0,0 +1,39 @@
+-- V4__Recipe_import_jobs.sql
+-- Jobs d'import asynchrones + checkpoints par page source (reprise et mode incrémental)
+
+CREATE TABLE IF NOT EXISTS recipe_import_jobs (
+  id              UUID PRIMARY KEY,
+  source          VARCHAR(30)  NOT NULL,
+  incremental     BOOLEAN      NOT NULL,
+  status          VARCHAR(20)  NOT NULL,
+  total_units     INTEGER      NOT NULL,
+  completed_units INTEGER      NOT NULL DEFAULT 0,
+  skipped_units   INTEGER      NOT NULL DEFAULT 0,
+  failed_units    INTEGER      NOT NULL DEFAULT 0,
+  rows_fetched    INTEGER      NOT NULL DEFAULT 0,
+  rows_created    INTEGER      NOT NULL DEFAULT 0,
+  lookup_ms       BIGINT       NOT NULL DEFAULT 0,
+  persist_ms      BIGINT       NOT NULL DEFAULT 0,
+  last_error      TEXT,
+  created_at      TIMESTAMP    NOT NULL,
+  started_at      TIMESTAMP,
+  updated_at      TIMESTAMP,
+  finished_at     TIMESTAMP,
+  units_at_start  INTEGER      NOT NULL DEFAULT 0,
+  rows_at_start   INTEGER      NOT NULL DEFAULT 0
+);
+
+-- reprise au démarrage : jobs RUNNING uniquement
+CREATE INDEX IF NOT EXISTS idx_recipe_import_jobs_running
+  ON recipe_import_jobs (source) WHERE status = 'RUNNING';
+
+CREATE TABLE IF NOT EXISTS recipe_import_checkpoints (
+  id           UUID PRIMARY KEY,
+  source       VARCHAR(30) NOT NULL,
+  unit_key     VARCHAR(50) NOT NULL,
+  content_hash VARCHAR(64) NOT NULL,
+  row_count    INTEGER     NOT NULL,
+  last_job_id  UUID        NOT NULL,
+  updated_at   TIMESTAMP   NOT NULL,
+  CONSTRAINT uk_recipe_import_checkpoints_unit UNIQUE (source, unit_key)
+);
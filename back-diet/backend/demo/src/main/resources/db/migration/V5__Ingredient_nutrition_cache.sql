@@ -0,0 +1,14 @@
+-- V5__Ingredient_nutrition_cache.sql
+-- Cache des nutriments par ingrédient (nom + unité normalisés), valeurs pour 1 unité
+
+CREATE TABLE IF NOT EXISTS ingredient_nutrition_cache (
+  ingredient_key     VARCHAR(300)     PRIMARY KEY,
+  name               VARCHAR(255)     NOT NULL,
+  unit               VARCHAR(50)      NOT NULL,
+  found              BOOLEAN          NOT NULL,
+  calories_per_unit  DOUBLE PRECISION NOT NULL DEFAULT 0,
+  protein_g_per_unit DOUBLE PRECISION NOT NULL DEFAULT 0,
+  carbs_g_per_unit   DOUBLE PRECISION NOT NULL DEFAULT 0,
+  fat_g_per_unit     DOUBLE PRECISION NOT NULL DEFAULT 0,
+  fetched_at         TIMESTAMP        NOT NULL
+);
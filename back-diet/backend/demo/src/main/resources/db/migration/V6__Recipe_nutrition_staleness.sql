@@ -0,0 +1,8 @@
+-- V6__Recipe_nutrition_staleness.sql
+-- Suivi des macros périmées : empreinte des ingrédients actuels vs au dernier calcul
+
+ALTER TABLE recipes ADD COLUMN IF NOT EXISTS ingredients_hash      VARCHAR(64);
+ALTER TABLE recipes ADD COLUMN IF NOT EXISTS nutrition_hash        VARCHAR(64);
+ALTER TABLE recipes ADD COLUMN IF NOT EXISTS nutrition_computed_at TIMESTAMP;
+
+-- lignes existantes : nutrition_hash NULL => considérées périmées au premier recalcul
@@ -0,0 +1,38 @@
+-- V7__Day_tracking_schema.sql
+-- Schéma du suivi journalier versionné (jusqu'ici créé par ddl-auto), avant les migrations qui le modifient.
+-- Colonnes d'origine seulement : totaux macros / version en V8, updated_at en V11
+
+CREATE TABLE IF NOT EXISTS day_tracking (
+  id                    UUID    PRIMARY KEY,
+  user_id               UUID    NOT NULL,
+  date                  DATE    NOT NULL,
+  calories_target       INTEGER NOT NULL DEFAULT 2100,
+  calories_in           INTEGER NOT NULL DEFAULT 0,
+  calories_out          INTEGER NOT NULL DEFAULT 0,
+  total_workout_minutes INTEGER NOT NULL DEFAULT 0,
+  total_sets            INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS day_meal (
+  id              UUID         PRIMARY KEY,
+  day_tracking_id UUID         NOT NULL,
+  recipe_name     VARCHAR(255) NOT NULL,
+  label           VARCHAR(255) NOT NULL,
+  time            VARCHAR(255) NOT NULL,
+  calories        INTEGER      NOT NULL,
+  servings        INTEGER      NOT NULL,
+  protein         INTEGER,
+  carbs           INTEGER,
+  fat             INTEGER,
+  image_url       VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS day_workout (
+  id              UUID         PRIMARY KEY,
+  day_tracking_id UUID         NOT NULL,
+  name            VARCHAR(255) NOT NULL,
+  time            VARCHAR(255) NOT NULL,
+  duration_min    INTEGER      NOT NULL,
+  calories_burned INTEGER,
+  total_sets      INTEGER      NOT NULL
+);
@@ -0,0 +1,38 @@
+-- V8__Day_tracking_running_totals.sql
+-- Totaux macros maintenus par delta + verrou optimiste sur day_tracking
+
+ALTER TABLE day_tracking ADD COLUMN IF NOT EXISTS protein_in INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE day_tracking ADD COLUMN IF NOT EXISTS carbs_in   INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE day_tracking ADD COLUMN IF NOT EXISTS fat_in     INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE day_tracking ADD COLUMN IF NOT EXISTS version    BIGINT  NOT NULL DEFAULT 0;
+
+-- Remet tous les totaux d'aplomb une fois (ensuite : deltas appliqués par DayTracking.applyMeal / applyWorkout)
+UPDATE day_tracking t
+SET calories_in = coalesce(m.calories, 0),
+    protein_in  = coalesce(m.protein, 0),
+    carbs_in    = coalesce(m.carbs, 0),
+    fat_in      = coalesce(m.fat, 0)
+FROM (
+  SELECT day_tracking_id,
+         sum(calories) AS calories,
+         sum(protein)  AS protein,
+         sum(carbs)    AS carbs,
+         sum(fat)      AS fat
+  FROM day_meal
+  GROUP BY day_tracking_id
+) m
+WHERE m.day_tracking_id = t.id;
+
+UPDATE day_tracking t
+SET calories_out          = coalesce(w.calories, 0),
+    total_workout_minutes = coalesce(w.minutes, 0),
+    total_sets            = coalesce(w.sets, 0)
+FROM (
+  SELECT day_tracking_id,
+         sum(calories_burned) AS calories,
+         sum(duration_min)    AS minutes,
+         sum(total_sets)      AS sets
+  FROM day_workout
+  GROUP BY day_tracking_id
+) w
+WHERE w.day_tracking_id = t.id;
@@ -0,0 +1,32 @@
+-- V9__Day_tracking_summary.sql
+-- Résumés hebdo / mensuels du suivi (maintenus par delta, voir DayTrackingSummaryService)
+
+CREATE TABLE IF NOT EXISTS day_tracking_summary (
+  user_id         UUID        NOT NULL,
+  period          VARCHAR(10) NOT NULL,
+  period_start    DATE        NOT NULL,
+  days_logged     INTEGER     NOT NULL DEFAULT 0,
+  calories_in     BIGINT      NOT NULL DEFAULT 0,
+  protein_in      BIGINT      NOT NULL DEFAULT 0,
+  carbs_in        BIGINT      NOT NULL DEFAULT 0,
+  fat_in          BIGINT      NOT NULL DEFAULT 0,
+  calories_out    BIGINT      NOT NULL DEFAULT 0,
+  workout_minutes BIGINT      NOT NULL DEFAULT 0,
+  total_sets      BIGINT      NOT NULL DEFAULT 0,
+  PRIMARY KEY (user_id, period, period_start)
+);
+
+-- Remplissage initial depuis l'historique existant (semaine ISO = lundi, comme Period.start)
+INSERT INTO day_tracking_summary (user_id, period, period_start, days_logged,
+    calories_in, protein_in, carbs_in, fat_in, calories_out, workout_minutes, total_sets)
+SELECT t.user_id, p.period, p.period_start,
+       count(*) FILTER (WHERE EXISTS (SELECT 1 FROM day_meal m WHERE m.day_tracking_id = t.id)),
+       sum(t.calories_in), sum(t.protein_in), sum(t.carbs_in), sum(t.fat_in),
+       sum(t.calories_out), sum(t.total_workout_minutes), sum(t.total_sets)
+FROM day_tracking t
+CROSS JOIN LATERAL (VALUES
+    ('WEEK',  date_trunc('week',  t.date)::date),
+    ('MONTH', date_trunc('month', t.date)::date)
+) AS p(period, period_start)
+GROUP BY t.user_id, p.period, p.period_start
+ON CONFLICT (user_id, period, period_start) DO NOTHING;
@@ -0,0 +1,107 @@
+package com.recipe_service.demo.ai;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgentImagePreprocessorTest {
+
+	private final AgentImagePreprocessor preprocessor = new AgentImagePreprocessor(true, 1600, 0.8f, 1, 4);
+
+	@AfterEach
+	void shutdown() {
+		preprocessor.shutdown();
+	}
+
+	@Test
+	void largePhotoIsDownscaledAndReencoded() throws Exception {
+		BufferedImage photo = new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = photo.createGraphics();
+		g.setPaint(new GradientPaint(0, 0, Color.ORANGE, 4000, 3000, Color.GREEN));
+		g.fillRect(0, 0, 4000, 3000);
+		g.dispose();
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(photo, "png", png);
+
+		AgentImagePreprocessor.PreparedImage prepared = preprocessor.prepare(
+				new MockMultipartFile("images", "frigo.png", "image/png", png.toByteArray())).get();
+
+		assertEquals("frigo.jpg", prepared.filename());
+		assertEquals(MediaType.IMAGE_JPEG, prepared.contentType());
+		assertTrue(prepared.bytes() < prepared.originalBytes());
+		try (InputStream in = prepared.content().call()) {
+			BufferedImage result = ImageIO.read(in);
+			assertEquals(1600, result.getWidth());
+			assertEquals(1200, result.getHeight());
+		}
+	}
+
+	@Test
+	void smallJpegIsKeptWhenReencodingIsNotLighter() throws Exception {
+		BufferedImage photo = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = photo.createGraphics();
+		g.setPaint(new GradientPaint(0, 0, Color.RED, 400, 300, Color.BLUE));
+		g.fillRect(0, 0, 400, 300);
+		g.dispose();
+		// déjà très compressée, sans EXIF : le JPEG qualité 0.8 serait plus lourd
+		ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+		ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+		try (ImageOutputStream out = ImageIO.createImageOutputStream(jpeg)) {
+			writer.setOutput(out);
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			param.setCompressionQuality(0.2f);
+			writer.write(null, new IIOImage(photo, null, null), param);
+		} finally {
+			writer.dispose();
+		}
+		byte[] original = jpeg.toByteArray();
+
+		AgentImagePreprocessor.PreparedImage prepared = preprocessor.prepare(
+				new MockMultipartFile("images", "assiette.jpeg", "image/jpeg", original)).get();
+
+		assertEquals("assiette.jpeg", prepared.filename());
+		assertEquals(original.length, prepared.bytes());
+		try (InputStream in = prepared.content().call()) {
+			assertArrayEquals(original, in.readAllBytes());
+		}
+	}
+
+	@Test
+	void undecodableFileIsForwardedUnchanged() throws Exception {
+		byte[] heic = {0, 0, 0, 24, 'f', 't', 'y', 'p', 'h', 'e', 'i', 'c'};
+
+		AgentImagePreprocessor.PreparedImage prepared = preprocessor.prepare(
+				new MockMultipartFile("images", "photo.heic", "image/heic", heic)).get();
+
+		assertEquals("photo.heic", prepared.filename());
+		assertEquals(heic.length, prepared.bytes());
+		try (InputStream in = prepared.content().call()) {
+			assertArrayEquals(heic, in.readAllBytes());
+		}
+	}
+
+	@Test
+	void readsExifOrientation() {
+		// "Exif\0\0" + TIFF little-endian, 1 entrée : 0x0112 SHORT = 6
+		byte[] app1 = {'E', 'x', 'i', 'f', 0, 0,
+				'I', 'I', 42, 0, 8, 0, 0, 0,
+				1, 0,
+				0x12, 0x01, 3, 0, 1, 0, 0, 0, 6, 0, 0, 0};
+
+		assertEquals(6, AgentImagePreprocessor.orientationFromApp1(app1));
+	}
+}
@@ -0,0 +1,53 @@
+package com.recipe_service.demo.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptSignatureTest {
+
+	@Test
+	void reorderedPromptsShareExactKey() {
+		PromptSignature a = PromptSignature.of("Recettes rapides avec du poulet");
+		PromptSignature b = PromptSignature.of("poulet, recette RAPIDE");
+
+		assertEquals(a.exactKey(), b.exactKey());
+	}
+
+	@Test
+	void typoStaysAboveThreshold() {
+		PromptSignature a = PromptSignature.of("gratin de courgettes au chèvre");
+		PromptSignature b = PromptSignature.of("gratin courgete chevre");
+
+		assertTrue(a.similarity(b) >= 0.8);
+		assertTrue(a.bandKeys().stream().anyMatch(b.bandKeys()::contains));
+	}
+
+	@Test
+	void differentIngredientIsNeverNear() {
+		PromptSignature base = PromptSignature.of("poulet rôti au citron vert et gingembre");
+
+		assertEquals(0, base.similarity(PromptSignature.of("poulet rôti au citron jaune et gingembre")));
+		assertEquals(0, base.similarity(PromptSignature.of("poulet rôti au citron vert, gingembre et miel")));
+		assertEquals(0, PromptSignature.of("tarte aux poires").similarity(PromptSignature.of("tarte au poivre")));
+	}
+
+	@Test
+	void negationsAndNumbersMustMatch() {
+		PromptSignature base = PromptSignature.of("poulet 500 kcal sans gluten");
+
+		assertEquals(0, base.similarity(PromptSignature.of("poulet 500 kcal avec gluten")));
+		assertEquals(0, base.similarity(PromptSignature.of("poulet 300 kcal sans gluten")));
+	}
+
+	@Test
+	void negationStaysBoundToItsWord() {
+		PromptSignature a = PromptSignature.of("pâtes sans champignons avec lardons");
+		PromptSignature b = PromptSignature.of("pâtes avec champignons sans lardons");
+
+		assertNotEquals(a.exactKey(), b.exactKey());
+		assertEquals(0, a.similarity(b));
+		assertEquals(a.exactKey(), PromptSignature.of("lardons et pâtes, sans champignon").exactKey());
+		assertEquals(PromptSignature.of("cake without gluten").exactKey(), PromptSignature.of("gluten free cake").exactKey());
+	}
+}
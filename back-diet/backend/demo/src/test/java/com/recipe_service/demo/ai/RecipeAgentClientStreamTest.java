@@ -0,0 +1,161 @@
+package com.recipe_service.demo.ai;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// agent bouchon : /api/chat/stream renvoie des tokens en SSE, /api/chat la réponse complète,
+// /api/chat/recipes-from-images lit le multipart envoyé en streaming
+class RecipeAgentClientStreamTest {
+
+	private HttpServer agent;
+
+	@BeforeEach
+	void startAgent() throws Exception {
+		agent = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		agent.start();
+	}
+
+	@AfterEach
+	void stopAgent() {
+		agent.stop(0);
+	}
+
+	@Test
+	void relaysTokensUntilDone() {
+		agent.createContext("/api/chat/stream", exchange -> {
+			exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream out = exchange.getResponseBody()) {
+				for (String chunk : List.of("data: Bon\n\n", "data: jour\n\n", "data:  à tous\n\n", "event: done\ndata: \n\n", "data: ignoré\n\n")) {
+					out.write(chunk.getBytes(StandardCharsets.UTF_8));
+					out.flush();
+				}
+			}
+		});
+
+		List<String> tokens = client().chatStream(request()).collectList().block(Duration.ofSeconds(5));
+
+		assertEquals(List.of("Bon", "jour", " à tous"), tokens);
+	}
+
+	@Test
+	void controllerKeepsLeadingSpacesOnTheWire() throws Exception {
+		agent.createContext("/api/chat/stream", exchange -> {
+			exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write("data: Hello\n\ndata:  world\n\n".getBytes(StandardCharsets.UTF_8));
+			}
+		});
+		AiTestController controller = new AiTestController(client(), null, null, null, null);
+		MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+		MvcResult started = mockMvc.perform(post("/api/public/ai/chat/stream")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"message\":\"salut\"}"))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+		started.getAsyncResult(5000);
+		String body = mockMvc.perform(asyncDispatch(started)).andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+		assertTrue(body.contains("event:token\ndata:{\"t\":\"Hello\"}"), body);
+		assertTrue(body.contains("event:token\ndata:{\"t\":\" world\"}"), body);
+		assertTrue(body.contains("event:done"), body);
+	}
+
+	@Test
+	void fallsBackToFullAnswerWithoutStreamingEndpoint() {
+		agent.createContext("/api/chat", exchange -> {
+			if (!exchange.getRequestURI().getPath().equals("/api/chat")) {
+				exchange.sendResponseHeaders(404, -1);
+				exchange.close();
+				return;
+			}
+			byte[] body = "{\"answer\":\"Bonjour\",\"provider\":\"stub\"}".getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+
+		List<String> tokens = client().chatStream(request()).collectList().block(Duration.ofSeconds(5));
+
+		assertEquals(List.of("Bonjour"), tokens);
+	}
+
+	@Test
+	void streamsUploadedImagesAndReleasesPermit() {
+		byte[] photo = new byte[300 * 1024];
+		Arrays.fill(photo, (byte) 7);
+		AtomicLong received = new AtomicLong();
+		agent.createContext("/api/chat/recipes-from-images", exchange -> {
+			received.set(exchange.getRequestBody().readAllBytes().length);
+			byte[] body = "{\"intro\":\"ok\",\"recipes\":[]}".getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		AgentUploadLimiter limiter = new AgentUploadLimiter(1, Duration.ofSeconds(1), DataSize.ofKilobytes(16));
+		MultipartFile[] files = { new MockMultipartFile("images", "frigo.jpg", "image/jpeg", photo) };
+
+		AiTestController.ChatRecipeResponse response = client(limiter).chatRecipesWithFiles("salade", files);
+
+		assertEquals("ok", response.intro());
+		assertTrue(received.get() > photo.length);
+		assertEquals(photo.length, limiter.streamedBytes());
+		assertEquals(0, limiter.activeUploads());
+		assertEquals(0, limiter.reservedBytes());
+	}
+
+	@Test
+	void encodedPhotosStayReservedUntilThePermitCloses() {
+		AgentUploadLimiter limiter = new AgentUploadLimiter(1, Duration.ofSeconds(1), DataSize.ofKilobytes(16));
+
+		try (AgentUploadLimiter.Permit permit = limiter.acquire(500_000)) {
+			permit.reserve(300_000);
+			assertEquals(limiter.bufferPerUpload() + 300_000, limiter.reservedBytes());
+		}
+		assertEquals(0, limiter.reservedBytes());
+	}
+
+	private RecipeAgentClient client() {
+		return client(null);
+	}
+
+	private RecipeAgentClient client(AgentUploadLimiter limiter) {
+		String url = "http://127.0.0.1:" + agent.getAddress().getPort();
+		Duration timeout = Duration.ofSeconds(5);
+		return new RecipeAgentClient(WebClient.builder(), null, limiter, new AgentImagePreprocessor(false, 1600, 0.8f, 1, 1), url, 4, timeout, timeout,
+				timeout, timeout, timeout, timeout);
+	}
+
+	private static AiTestController.ChatRequestToAgent request() {
+		return new AiTestController.ChatRequestToAgent("test", List.of(), "salut");
+	}
+}
@@ -0,0 +1,95 @@
+package com.recipe_service.demo.nutrition;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalorieNinjasClientTest {
+
+	private HttpServer stub;
+	private final List<String> queries = new CopyOnWriteArrayList<>();
+	private CalorieNinjasClient client;
+
+	@BeforeEach
+	void startStub() throws Exception {
+		stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		stub.createContext("/v1/nutrition", exchange -> {
+			String query = URLDecoder.decode(exchange.getRequestURI().getRawQuery().substring("query=".length()), StandardCharsets.UTF_8);
+			queries.add(query);
+
+			// le stub ne reconnaît que "chicken", "rice" et "salt and pepper" (découpé en deux items)
+			StringBuilder items = new StringBuilder();
+			for (String part : query.split(", ")) {
+				String item = part.endsWith("chicken") ? item("chicken", 165, 31, 0, 3.6)
+						: part.endsWith("rice") ? item("rice", 130, 2.7, 28, 0.3)
+						: part.endsWith("salt and pepper") ? item("salt", 0, 0, 0, 0) + "," + item("black pepper", 251, 10, 64, 3.3)
+						: null;
+				if (item != null) {
+					items.append(items.isEmpty() ? "" : ",").append(item);
+				}
+			}
+			byte[] body = ("{\"items\":[" + items + "]}").getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		stub.start();
+
+		client = new CalorieNinjasClient(new RestTemplate(),
+				"http://127.0.0.1:" + stub.getAddress().getPort(), "test-key", 1000);
+	}
+
+	@AfterEach
+	void stopStub() {
+		stub.stop(0);
+	}
+
+	@Test
+	void batchedLookupReturnsValuesPerUnit() throws Exception {
+		List<NutritionTotals> perUnit = client.lookupPerUnit(List.of(
+				new IngredientLine("chicken", 200, "g"),
+				new IngredientLine("rice", 150, "g")));
+
+		assertEquals(List.of("100 g chicken, 100 g rice"), queries);
+		assertEquals(1.65, perUnit.get(0).calories(), 1e-9);
+		assertEquals(0.28, perUnit.get(1).carbsG(), 1e-9);
+	}
+
+	@Test
+	void unknownIngredientFallsBackToOneQueryPerLine() throws Exception {
+		List<NutritionTotals> perUnit = client.lookupPerUnit(List.of(
+				new IngredientLine("chicken", 200, "g"),
+				new IngredientLine("unobtainium", 1, "piece")));
+
+		assertEquals(3, queries.size());
+		assertEquals(0.31, perUnit.get(0).proteinG(), 1e-9);
+		assertNull(perUnit.get(1));
+	}
+
+	@Test
+	void shiftedItemsWithMatchingCountAreNotTrusted() throws Exception {
+		// 2 lignes, 2 items... mais "salt" / "black pepper" viennent tous deux de la 2e ligne
+		List<NutritionTotals> perUnit = client.lookupPerUnit(List.of(
+				new IngredientLine("unobtainium", 1, "piece"),
+				new IngredientLine("salt and pepper", 1, "g")));
+
+		assertEquals(3, queries.size());
+		assertNull(perUnit.get(0));
+		assertEquals(2.51, perUnit.get(1).calories(), 1e-9);
+	}
+
+	private static String item(String name, double calories, double protein, double carbs, double fat) {
+		return "{\"name\":\"" + name + "\",\"calories\":" + calories + ",\"protein_g\":" + protein
+				+ ",\"carbohydrates_total_g\":" + carbs + ",\"fat_total_g\":" + fat + "}";
+	}
+}
@@ -0,0 +1,69 @@
+package com.recipe_service.demo.nutrition;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalNutrientTableTest {
+
+	private final LocalNutrientTable table = new LocalNutrientTable();
+
+	@Test
+	void matchesAliasesPluralsAndTypos() {
+		assertEquals("chicken breast", table.match("Boneless chicken breast fillets").orElseThrow().name());
+		assertEquals("olive oil", table.match("Extra virgin olive oil").orElseThrow().name());
+		assertEquals("tomato", table.match("tomatoe").orElseThrow().name());
+		assertTrue(table.match("unobtainium").isEmpty());
+	}
+
+	@Test
+	void compoundNamesAreMissesNotTheirFirstWord() {
+		for (String name : List.of("butter beans", "almond milk", "milk chocolate", "rice vinegar",
+				"chicken bouillon", "garlic powder", "coconut cream", "corn flour")) {
+			assertTrue(table.match(name).isEmpty(), name);
+		}
+		assertEquals("bell pepper", table.match("red bell pepper").orElseThrow().name());
+		assertEquals("bacon", table.match("smoked streaky bacon").orElseThrow().name());
+	}
+
+	@Test
+	void convertsUnitsToGrams() {
+		// 1 tbsp d'huile d'olive = 15 ml x 0.92 g/ml
+		NutritionTotals oil = table.perUnit(new IngredientLine("olive oil", 1, "tbsp")).orElseThrow();
+		assertEquals(884 * 0.138, oil.calories(), 1e-6);
+
+		// 1 oeuf = 50 g
+		NutritionTotals egg = table.perUnit(new IngredientLine("eggs", 1, IngredientUnits.PIECE)).orElseThrow();
+		assertEquals(143 * 0.5, egg.calories(), 1e-6);
+
+		// 1 boîte de tomates = 400 g, pas une tomate
+		assertEquals("can", IngredientUnits.canonical("tin"));
+		NutritionTotals tin = table.perUnit(new IngredientLine("tomatoes", 1, IngredientUnits.canonical("tin"))).orElseThrow();
+		NutritionTotals gram = table.perUnit(new IngredientLine("tomatoes", 1, "g")).orElseThrow();
+		assertEquals(400 * gram.calories(), tin.calories(), 1e-6);
+
+		// pas de densité connue pour les pâtes : on laisse la main à l'API
+		assertTrue(table.perUnit(new IngredientLine("spaghetti", 1, "cup")).isEmpty());
+	}
+
+	@Test
+	void parsesTheMealDbMeasures() throws Exception {
+		List<IngredientLine> lines = IngredientLine.parse("""
+				[{"name":"Flour","quantity":"1 1/2 cups"},
+				 {"name":"Butter","quantity":"200g"},
+				 {"name":"Garlic","quantity":"2 cloves"},
+				 {"name":"Salt","quantity":"to taste"},
+				 {"name":"Olive oil","quantity":"2-3 tbsp"},
+				 {"name":"Onion","quantity":"1 chopped"}]
+				""");
+
+		assertEquals(List.of(
+				new IngredientLine("flour", 1.5, "cup"),
+				new IngredientLine("butter", 200, "g"),
+				new IngredientLine("garlic", 2, IngredientUnits.PIECE),
+				new IngredientLine("olive oil", 2.5, "tbsp"),
+				new IngredientLine("onion", 1, IngredientUnits.PIECE)), lines);
+	}
+}
@@ -0,0 +1,36 @@
+package com.recipe_service.demo.recipe;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeKeysetCursorTest {
+
+	@Test
+	void encodeDecodeRoundTrip() {
+		UUID id = UUID.randomUUID();
+		RecipeKeysetCursor cursor = new RecipeKeysetCursor(RecipeKeysetCursor.SortKey.TITLE, "Tajine: poulet", id);
+
+		RecipeKeysetCursor decoded = RecipeKeysetCursor.decode(cursor.encode());
+
+		assertEquals(cursor, decoded);
+	}
+
+	@Test
+	void emptyCaloriesValueSurvivesRoundTrip() {
+		RecipeKeysetCursor cursor = new RecipeKeysetCursor(RecipeKeysetCursor.SortKey.CALORIES, "", UUID.randomUUID());
+
+		RecipeKeysetCursor decoded = RecipeKeysetCursor.decode(cursor.encode());
+
+		assertEquals("", decoded.value());
+		assertEquals(RecipeKeysetCursor.SortKey.CALORIES, decoded.sortKey());
+	}
+
+	@Test
+	void invalidTokenIsRejected() {
+		assertThrows(ResponseStatusException.class, () -> RecipeKeysetCursor.decode("pas-un-curseur"));
+	}
+}
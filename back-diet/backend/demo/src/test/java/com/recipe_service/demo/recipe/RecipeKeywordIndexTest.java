@@ -0,0 +1,82 @@
+package com.recipe_service.demo.recipe;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeKeywordIndexTest {
+
+	@Test
+	void tokenizeDropsAccentsCaseAndStopWords() {
+		assertEquals(List.of("creme", "brulee", "poulet"), RecipeKeywordIndex.tokenize("Crème brûlée au Poulet"));
+		assertEquals(List.of("riz", "curry"), RecipeKeywordIndex.tokenize("recette de riz, avec du curry !"));
+		assertEquals(List.of(), RecipeKeywordIndex.tokenize("  "));
+	}
+
+	@Test
+	void titleAndRareTermsRankFirst() {
+		RecipeKeywordIndex index = new RecipeKeywordIndex(null);
+		Recipe inTitle = recipe("Poulet au curry", "Indian", "[{\"name\":\"riz\"}]");
+		Recipe inIngredients = recipe("Riz sauté", "Asian", "[{\"name\":\"poulet\"},{\"name\":\"oignon\"}]");
+		Recipe unrelated = recipe("Tarte aux pommes", "Dessert", "[{\"name\":\"pomme\"}]");
+		index.add(inTitle);
+		index.add(inIngredients);
+		index.add(unrelated);
+
+		List<RecipeKeywordIndex.Hit> hits = index.search("poulet", 10);
+		assertEquals(List.of(inTitle.getId(), inIngredients.getId()), hits.stream().map(h -> h.recipe().id()).toList());
+		assertTrue(hits.get(0).score() > hits.get(1).score());
+
+		// "curry" n'est que dans une recette : plus discriminant que "poulet", présent dans deux
+		assertEquals(inTitle.getId(), index.search("riz curry", 1).get(0).recipe().id());
+	}
+
+	@Test
+	void addReplacesThePreviousVersion() {
+		RecipeKeywordIndex index = new RecipeKeywordIndex(null);
+		Recipe recipe = recipe("Soupe de tomates", null, null);
+		index.add(recipe);
+
+		recipe.setTitle("Soupe de potiron");
+		index.add(recipe);
+
+		assertEquals(1, index.size());
+		assertTrue(index.search("tomates", 10).isEmpty());
+		assertEquals("Soupe de potiron", index.search("potiron", 10).get(0).recipe().title());
+	}
+
+	@Test
+	void rebuildSwapsInTheStoredRecipes() {
+		Recipe stored = recipe("Gratin dauphinois", "French", "[{\"name\":\"pomme de terre\"}]");
+		RecipeRepository repository = (RecipeRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { RecipeRepository.class }, (proxy, method, args) -> {
+					if (method.getName().equals("findAll") && args.length == 1 && args[0] instanceof Pageable pageable) {
+						return new PageImpl<>(List.of(stored), pageable, 1);
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+		RecipeKeywordIndex index = new RecipeKeywordIndex(repository);
+		index.add(recipe("Ancienne recette", null, null));
+
+		index.rebuild();
+
+		assertEquals(1, index.size());
+		assertEquals(stored.getId(), index.search("gratin", 10).get(0).recipe().id());
+	}
+
+	private static Recipe recipe(String title, String tags, String ingredientsJson) {
+		Recipe recipe = new Recipe();
+		ReflectionTestUtils.setField(recipe, "id", UUID.randomUUID());
+		recipe.setTitle(title);
+		recipe.setTags(tags);
+		recipe.setIngredientsJson(ingredientsJson);
+		return recipe;
+	}
+}
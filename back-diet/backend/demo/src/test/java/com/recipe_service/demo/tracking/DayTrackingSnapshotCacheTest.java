@@ -0,0 +1,50 @@
+package com.recipe_service.demo.tracking;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DayTrackingSnapshotCacheTest {
+
+	private static final UUID USER = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+	private static final LocalDate DAY = LocalDate.of(2025, 1, 15);
+
+	@Test
+	void readStartedBeforeATotalsOnlyCommitCannotRestoreTheOldSnapshot() {
+		DayTrackingSnapshotCache cache = cache();
+		cache.offer(USER, day(3));
+
+		// ajout groupé multi-jours commité en version 4 : totaux seuls -> snapshot évincé
+		cache.onDayTrackingChanged(new DayTrackingChangedEvent(USER, day(4), false));
+		assertTrue(cache.get(USER, DAY).isEmpty());
+
+		// une lecture commencée avant le commit arrive après, avec la version 3
+		cache.offer(USER, day(3));
+		assertTrue(cache.get(USER, DAY).isEmpty());
+
+		cache.offer(USER, day(4));
+		assertEquals(4L, cache.get(USER, DAY).orElseThrow().getVersion());
+	}
+
+	private static DayTrackingSnapshotCache cache() {
+		CaffeineCacheManager manager = new CaffeineCacheManager();
+		manager.registerCustomCache(DayTrackingSnapshotCache.CACHE, Caffeine.newBuilder().maximumSize(100).build());
+		DayTrackingSnapshotCache cache = new DayTrackingSnapshotCache(100, Duration.ofMinutes(30));
+		ReflectionTestUtils.setField(cache, "cacheManager", manager);
+		return cache;
+	}
+
+	private static DayTrackingDto day(long version) {
+		DayTrackingDto dto = new DayTrackingDto();
+		dto.date = DAY.toString();
+		dto.version = version;
+		return dto;
+	}
+}
@@ -0,0 +1,165 @@
+package com.recipe_service.demo.tracking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkoutWriteBehindBufferTest {
+
+	private static final UUID USER = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+	private static final LocalDate DAY = LocalDate.of(2025, 1, 15);
+
+	@TempDir
+	Path dir;
+
+	private Path journal;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final StubService service = new StubService();
+
+	@BeforeEach
+	void setUp() {
+		journal = dir.resolve("workout-journal.jsonl");
+	}
+
+	@Test
+	void replayRequeuesOnlyUnflushedEntriesWithTheirJournalIds() throws Exception {
+		UUID first = UUID.randomUUID();
+		UUID second = UUID.randomUUID();
+		UUID third = UUID.randomUUID();
+		Files.writeString(journal, line(1L, first, "Squat") + line(2L, second, "Bench") + flushed(1L)
+				+ line(3L, third, "Row"), StandardCharsets.UTF_8);
+
+		WorkoutWriteBehindBuffer buffer = buffer();
+		assertTrue(buffer.open());
+		buffer.flush();
+
+		// même id qu'à la réception : un lot déjà commité avant le crash est ignoré en base
+		assertEquals(1, service.calls.size());
+		assertEquals(List.of(second, third), List.copyOf(service.calls.get(0).keySet()));
+		assertEquals("Bench", service.calls.get(0).get(second).getName());
+	}
+
+	@Test
+	void truncatedLastLineIsDroppedBeforeNewEntriesAreAppended() throws Exception {
+		UUID kept = UUID.randomUUID();
+		String torn = line(2L, UUID.randomUUID(), "Deadlift");
+		Files.writeString(journal, line(1L, kept, "Squat") + torn.substring(0, torn.length() / 2), StandardCharsets.UTF_8);
+
+		WorkoutWriteBehindBuffer buffer = buffer();
+		assertTrue(buffer.open());
+		service.failing = true;
+		buffer.enqueue(USER, DAY, workout("Lunge"));
+		buffer.flush();
+
+		// la séance suivante n'est pas collée derrière la ligne tronquée : les deux restent relisibles
+		WorkoutWriteBehindBuffer restarted = buffer();
+		service.failing = false;
+		assertTrue(restarted.open());
+		restarted.flush();
+
+		Map<UUID, DayWorkoutDto> replayed = service.calls.get(service.calls.size() - 1);
+		assertEquals(List.of("Squat", "Lunge"), replayed.values().stream().map(DayWorkoutDto::getName).toList());
+		assertEquals(kept, replayed.keySet().iterator().next());
+	}
+
+	@Test
+	void journalIsCompactedOnceNothingIsPending() throws Exception {
+		WorkoutWriteBehindBuffer buffer = buffer();
+		assertTrue(buffer.open());
+		buffer.enqueue(USER, DAY, workout("Squat"));
+		assertTrue(Files.size(journal) > 0);
+
+		service.failing = true;
+		buffer.flush();
+		assertTrue(Files.size(journal) > 0, "un jour en échec garde le journal");
+
+		service.failing = false;
+		buffer.flush();
+		assertEquals(0, Files.size(journal));
+	}
+
+	@Test
+	void failedDayKeepsItsEntriesAheadOfNewerOnes() throws Exception {
+		WorkoutWriteBehindBuffer buffer = buffer();
+		assertTrue(buffer.open());
+		buffer.enqueue(USER, DAY, workout("Squat"));
+		buffer.enqueue(USER, DAY, workout("Bench"));
+
+		service.failing = true;
+		buffer.flush();
+		service.failing = false;
+		buffer.enqueue(USER, DAY, workout("Row"));
+		buffer.flush();
+
+		Map<UUID, DayWorkoutDto> saved = service.calls.get(service.calls.size() - 1);
+		assertEquals(List.of("Squat", "Bench", "Row"), saved.values().stream().map(DayWorkoutDto::getName).toList());
+	}
+
+	private WorkoutWriteBehindBuffer buffer() {
+		WorkoutWriteBehindBuffer buffer = new WorkoutWriteBehindBuffer();
+		ReflectionTestUtils.setField(buffer, "service", service);
+		ReflectionTestUtils.setField(buffer, "objectMapper", objectMapper);
+		ReflectionTestUtils.setField(buffer, "enabled", true);
+		ReflectionTestUtils.setField(buffer, "flushInterval", Duration.ofHours(1));
+		ReflectionTestUtils.setField(buffer, "maxEntries", 50);
+		ReflectionTestUtils.setField(buffer, "journalFile", journal.toString());
+		return buffer;
+	}
+
+	private String line(Long seq, UUID id, String name) throws Exception {
+		return objectMapper.writeValueAsString(new WorkoutWriteBehindBuffer.JournalLine(
+				seq, id, USER, DAY.toString(), workout(name), null)) + "\n";
+	}
+
+	private String flushed(Long... seqs) throws Exception {
+		return objectMapper.writeValueAsString(new WorkoutWriteBehindBuffer.JournalLine(
+				null, null, null, null, null, List.of(seqs))) + "\n";
+	}
+
+	private static DayWorkoutDto workout(String name) {
+		DayWorkoutDto workout = new DayWorkoutDto();
+		workout.setName(name);
+		workout.setTime("10:00");
+		workout.setDurationMin(5);
+		workout.setTotalSets(1);
+		return workout;
+	}
+
+	// garde chaque lot reçu, ou échoue comme une base indisponible
+	private static class StubService extends DayTrackingService {
+
+		final List<Map<UUID, DayWorkoutDto>> calls = new ArrayList<>();
+		boolean failing;
+
+		@Override
+		public DayTrackingDto getOrCreateTracking(UUID userId, LocalDate date) {
+			return day(date);
+		}
+
+		@Override
+		public DayTrackingDto addWorkouts(UUID userId, LocalDate date, Map<UUID, DayWorkoutDto> workoutsByJournalId) {
+			if (failing) {
+				throw new IllegalStateException("base indisponible");
+			}
+			calls.add(new LinkedHashMap<>(workoutsByJournalId));
+			return day(date);
+		}
+
+		private static DayTrackingDto day(LocalDate date) {
+			DayTrackingDto dto = new DayTrackingDto();
+			dto.date = date.toString();
+			return dto;
+		}
+	}
+}